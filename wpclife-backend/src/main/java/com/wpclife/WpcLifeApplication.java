@@ -2,8 +2,10 @@ package com.wpclife;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class WpcLifeApplication {
     public static void main(String[] args) {
         SpringApplication.run(WpcLifeApplication.class, args);
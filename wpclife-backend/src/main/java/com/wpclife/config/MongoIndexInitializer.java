@@ -0,0 +1,278 @@
+package com.wpclife.config;
+
+import com.wpclife.model.*;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The indexes every repository query relies on, kept in one place. Field-level @Indexed is not
+ * applied because auto index creation is off, so these are built here after startup, in the
+ * background, and can then be checked with explain so a query that would scan its whole
+ * collection shows up in the logs.
+ */
+@Component
+@Slf4j
+public class MongoIndexInitializer {
+    
+    private static final Sort.Direction ASC = Sort.Direction.ASC;
+    private static final Sort.Direction DESC = Sort.Direction.DESC;
+    
+    private final MongoTemplate mongoTemplate;
+    private final boolean createIndexes;
+    private final boolean verifyQueries;
+    private final Duration parseCacheTtl;
+    
+    public MongoIndexInitializer(
+            MongoTemplate mongoTemplate,
+            @Value("${mongo.indexes.create:true}") boolean createIndexes,
+            @Value("${mongo.indexes.verify:false}") boolean verifyQueries,
+            @Value("${ai.cache.ttl-minutes:60}") long parseCacheTtlMinutes
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.createIndexes = createIndexes;
+        this.verifyQueries = verifyQueries;
+        this.parseCacheTtl = Duration.ofMinutes(parseCacheTtlMinutes);
+    }
+    
+    record ManagedIndex(Class<?> entity, Index index) {
+    }
+    
+    record QueryProbe(Class<?> entity, String name, Document filter, Document sort) {
+    }
+    
+    static List<ManagedIndex> indexes(Duration parseCacheTtl) {
+        return List.of(
+                // Keyset-paged list endpoints, newest first
+                index(Chore.class, new Index().on("householdId", ASC).on("_id", DESC)),
+                index(CalendarEvent.class, new Index().on("householdId", ASC).on("_id", DESC)),
+                index(GroceryItem.class, new Index().on("householdId", ASC).on("_id", DESC)),
+                index(Medication.class, new Index().on("householdId", ASC).on("_id", DESC)),
+                index(MedicationLog.class, new Index().on("medicationId", ASC).on("_id", DESC)),
+                // Delta sync, oldest change first
+                index(Chore.class, syncIndex("updatedAt")),
+                index(CalendarEvent.class, syncIndex("updatedAt")),
+                index(Medication.class, syncIndex("updatedAt")),
+                index(MedicationLog.class, syncIndex("updatedAt")),
+                index(GroceryItem.class, syncIndex("updatedAt")),
+                index(SyncTombstone.class, syncIndex("deletedAt")),
+                index(SyncTombstone.class, new Index().on("deletedAt", ASC).expire(SyncTombstone.RETENTION)),
+                // ChoreRepository
+                index(Chore.class, new Index().on("householdId", ASC).on("completed", ASC)),
+                index(Chore.class, new Index().on("householdId", ASC).on("dueDate", ASC)),
+                index(Chore.class, new Index().on("assignedToId", ASC)),
+                // Windowed chore stats
+                index(Chore.class, new Index().on("householdId", ASC).on("completedAt", ASC)),
+                // CalendarEventRepository
+                index(CalendarEvent.class, new Index().on("householdId", ASC).on("startTime", ASC)),
+                index(CalendarEvent.class, new Index().on("participantIds", ASC)),
+                // GroceryItemRepository
+                index(GroceryItem.class, new Index().on("householdId", ASC).on("checked", ASC)),
+                index(GroceryItem.class, new Index().on("householdId", ASC).on("category", ASC)),
+                // MedicationRepository
+                index(Medication.class, new Index().on("assignedToId", ASC)),
+                // MedicationLogRepository
+                index(MedicationLog.class, new Index().on("medicationId", ASC).on("scheduledTime", ASC)),
+                index(MedicationLog.class, new Index().on("householdId", ASC).on("scheduledTime", ASC)),
+                index(MedicationLog.class, new Index().on("userId", ASC).on("scheduledTime", ASC)),
+                // AuditLogRepository
+                index(AuditLog.class, new Index().on("householdId", ASC).on("timestamp", ASC)),
+                index(AuditLog.class, new Index().on("userId", ASC)),
+                // UserRepository
+                index(User.class, new Index().on("email", ASC).unique()),
+                index(User.class, new Index().on("householdId", ASC)),
+                // HouseholdRepository, DeviceTokenRepository
+                index(Household.class, new Index().on("inviteCode", ASC)),
+                index(DeviceToken.class, new Index().on("userId", ASC)),
+                index(DeviceToken.class, new Index().on("token", ASC)),
+                // ScheduleJobRepository; finished jobs expire after a week
+                index(ScheduleJob.class, new Index().on("userId", ASC)),
+                index(ScheduleJob.class, new Index().on("status", ASC)),
+                index(ScheduleJob.class, new Index().on("createdAt", ASC).expire(Duration.ofDays(7))),
+                // Revocations are dropped once the tokens they cover have expired
+                index(TokenRevocation.class, new Index().on("expiresAt", ASC).expire(Duration.ZERO)),
+                // Same lifetime as the in-memory tier of ScheduleParseCache
+                index(CachedScheduleParse.class, new Index().on("createdAt", ASC).expire(parseCacheTtl))
+        );
+    }
+    
+    static List<QueryProbe> probes() {
+        String id = "000000000000000000000000";
+        LocalDateTime now = LocalDateTime.now();
+        Document range = new Document("$gte", now.minusDays(7)).append("$lte", now);
+        Document newestFirst = new Document("_id", -1);
+        return List.of(
+                new QueryProbe(Chore.class, "page", new Document("householdId", id), newestFirst),
+                new QueryProbe(CalendarEvent.class, "page", new Document("householdId", id), newestFirst),
+                new QueryProbe(GroceryItem.class, "page", new Document("householdId", id), newestFirst),
+                new QueryProbe(Medication.class, "page", new Document("householdId", id), newestFirst),
+                new QueryProbe(MedicationLog.class, "page", new Document("medicationId", id), newestFirst),
+                new QueryProbe(Chore.class, "sync", changedSince(id, "updatedAt", now), oldestFirst("updatedAt")),
+                new QueryProbe(MedicationLog.class, "sync", changedSince(id, "updatedAt", now), oldestFirst("updatedAt")),
+                new QueryProbe(SyncTombstone.class, "sync", changedSince(id, "deletedAt", now), oldestFirst("deletedAt")),
+                probe(Chore.class, "findByHouseholdId", new Document("householdId", id)),
+                probe(Chore.class, "findByAssignedToId", new Document("assignedToId", id)),
+                probe(Chore.class, "findByHouseholdIdAndCompleted", new Document("householdId", id).append("completed", true)),
+                probe(Chore.class, "findByHouseholdIdAndDueDateBefore",
+                        new Document("householdId", id).append("dueDate", new Document("$lt", now))),
+                probe(Chore.class, "stats", new Document("householdId", id).append("completed", true)
+                        .append("completedAt", new Document("$gte", now.minusDays(7)))),
+                probe(CalendarEvent.class, "findByHouseholdId", new Document("householdId", id)),
+                probe(CalendarEvent.class, "findByHouseholdIdAndStartTimeBetween",
+                        new Document("householdId", id).append("startTime", range)),
+                probe(CalendarEvent.class, "findByParticipantIdsContaining", new Document("participantIds", id)),
+                probe(GroceryItem.class, "findByHouseholdId", new Document("householdId", id)),
+                probe(GroceryItem.class, "findByHouseholdIdAndChecked", new Document("householdId", id).append("checked", false)),
+                probe(GroceryItem.class, "findByHouseholdIdAndCategory", new Document("householdId", id).append("category", "DAIRY")),
+                probe(Medication.class, "findByHouseholdId", new Document("householdId", id)),
+                probe(Medication.class, "findByAssignedToId", new Document("assignedToId", id)),
+                probe(MedicationLog.class, "findByMedicationId", new Document("medicationId", id)),
+                probe(MedicationLog.class, "findByHouseholdIdAndScheduledTimeBetween",
+                        new Document("householdId", id).append("scheduledTime", range)),
+                probe(MedicationLog.class, "findByUserIdAndScheduledTimeBetween",
+                        new Document("userId", id).append("scheduledTime", range)),
+                probe(AuditLog.class, "findByHouseholdId", new Document("householdId", id)),
+                probe(AuditLog.class, "findByHouseholdIdAndTimestampBetween",
+                        new Document("householdId", id).append("timestamp", range)),
+                probe(AuditLog.class, "findByUserId", new Document("userId", id)),
+                probe(User.class, "findByEmail", new Document("email", "probe@example.com")),
+                probe(User.class, "findByHouseholdId", new Document("householdId", id)),
+                probe(Household.class, "findByInviteCode", new Document("inviteCode", "PROBE")),
+                probe(DeviceToken.class, "findByUserId", new Document("userId", id)),
+                probe(DeviceToken.class, "findByToken", new Document("token", "probe")),
+                probe(ScheduleJob.class, "findByIdAndUserId", new Document("_id", id).append("userId", id)),
+                probe(ScheduleJob.class, "findByStatus", new Document("status", "PENDING")),
+                probe(TokenRevocation.class, "refresh", new Document("expiresAt", new Document("$gt", now)))
+        );
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!createIndexes && !verifyQueries) {
+            return;
+        }
+        // Index builds on large collections take a while; don't hold up startup for them
+        Thread.ofVirtual().name("mongo-index-init").start(() -> {
+            if (createIndexes) {
+                ensureIndexes();
+            }
+            if (verifyQueries) {
+                verifyQueryPlans();
+            }
+        });
+    }
+    
+    void ensureIndexes() {
+        List<ManagedIndex> indexes = indexes(parseCacheTtl);
+        int failed = 0;
+        for (ManagedIndex managed : indexes) {
+            try {
+                mongoTemplate.indexOps(managed.entity()).ensureIndex(managed.index().background());
+            } catch (Exception e) {
+                if (updateExpiry(managed)) {
+                    continue;
+                }
+                // Typically an equivalent index already exists under another name or with other options
+                failed++;
+                log.warn("Could not create index {} on {}: {}",
+                        managed.index().getIndexKeys().toJson(), managed.entity().getSimpleName(), e.getMessage());
+            }
+        }
+        log.info("Ensured {} MongoDB indexes ({} failed)", indexes.size() - failed, failed);
+    }
+    
+    // A TTL index that exists with another expiry is changed in place instead of being rebuilt
+    private boolean updateExpiry(ManagedIndex managed) {
+        Object expireAfterSeconds = managed.index().getIndexOptions().get("expireAfterSeconds");
+        if (expireAfterSeconds == null) {
+            return false;
+        }
+        try {
+            mongoTemplate.executeCommand(new Document("collMod", mongoTemplate.getCollectionName(managed.entity()))
+                    .append("index", new Document("keyPattern", managed.index().getIndexKeys())
+                            .append("expireAfterSeconds", expireAfterSeconds)));
+            log.info("Updated expiry of {} on {} to {}s",
+                    managed.index().getIndexKeys().toJson(), managed.entity().getSimpleName(), expireAfterSeconds);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Runs explain on every probe and returns the ones whose winning plan scans the whole collection,
+     * or that could not be explained. MongoIndexInitializerTest requires this to be empty.
+     */
+    List<String> verifyQueryPlans() {
+        List<String> collectionScans = new ArrayList<>();
+        for (QueryProbe probe : probes()) {
+            String collection = mongoTemplate.getCollectionName(probe.entity());
+            try {
+                Document plan = mongoTemplate.getCollection(collection)
+                        .find(probe.filter())
+                        .sort(probe.sort())
+                        .explain();
+                Object winningPlan = plan.get("queryPlanner", Document.class).get("winningPlan");
+                if (usesCollectionScan(winningPlan)) {
+                    collectionScans.add(collection + "." + probe.name());
+                }
+            } catch (Exception e) {
+                // An unverifiable query counts as a scan rather than passing silently
+                log.warn("Could not explain {}.{}: {}", collection, probe.name(), e.getMessage());
+                collectionScans.add(collection + "." + probe.name() + " (explain failed)");
+            }
+        }
+        if (collectionScans.isEmpty()) {
+            log.info("All {} repository queries are served by an index", probes().size());
+        } else {
+            log.warn("Queries planned as a collection scan: {}", collectionScans);
+        }
+        return collectionScans;
+    }
+    
+    private static boolean usesCollectionScan(Object plan) {
+        if (plan instanceof Map<?, ?> stage) {
+            if ("COLLSCAN".equals(stage.get("stage"))) {
+                return true;
+            }
+            return stage.values().stream().anyMatch(MongoIndexInitializer::usesCollectionScan);
+        }
+        if (plan instanceof List<?> stages) {
+            return stages.stream().anyMatch(MongoIndexInitializer::usesCollectionScan);
+        }
+        return false;
+    }
+    
+    private static ManagedIndex index(Class<?> entity, Index index) {
+        return new ManagedIndex(entity, index);
+    }
+    
+    private static Index syncIndex(String timeField) {
+        return new Index().on("householdId", ASC).on(timeField, ASC).on("_id", ASC);
+    }
+    
+    private static Document changedSince(String householdId, String timeField, LocalDateTime now) {
+        return new Document("householdId", householdId)
+                .append(timeField, new Document("$gt", now.minusDays(1)).append("$lte", now));
+    }
+    
+    private static Document oldestFirst(String timeField) {
+        return new Document(timeField, 1).append("_id", 1);
+    }
+    
+    private static QueryProbe probe(Class<?> entity, String name, Document filter) {
+        return new QueryProbe(entity, name, filter, null);
+    }
+}
@@ -0,0 +1,70 @@
+package com.wpclife.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+public class OpenAIClientConfig {
+    
+    @Value("${OPENAI_API_KEY:}")
+    private String openaiApiKey;
+    
+    @Value("${OPENAI_API_URL:https://api.openai.com/v1}")
+    private String openaiApiUrl;
+    
+    @Value("${ai.openai.max-connections:50}")
+    private int maxConnections;
+    
+    @Value("${ai.openai.pending-acquire-max:100}")
+    private int pendingAcquireMax;
+    
+    @Value("${ai.openai.pending-acquire-timeout-ms:5000}")
+    private long pendingAcquireTimeoutMs;
+    
+    @Value("${ai.openai.max-idle-seconds:55}")
+    private long maxIdleSeconds;
+    
+    @Value("${ai.openai.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+    
+    @Value("${ai.openai.response-timeout-seconds:60}")
+    private long responseTimeoutSeconds;
+    
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider openAIConnectionProvider() {
+        return ConnectionProvider.builder("openai")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofSeconds(maxIdleSeconds))
+                .evictInBackground(Duration.ofSeconds(30))
+                .metrics(true)
+                .build();
+    }
+    
+    @Bean
+    public WebClient openAIWebClient(WebClient.Builder builder, ConnectionProvider openAIConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(openAIConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(Duration.ofSeconds(responseTimeoutSeconds))
+                .compress(true);
+        
+        return builder
+                .baseUrl(openaiApiUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + openaiApiKey)
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .build();
+    }
+}
@@ -2,16 +2,25 @@ package com.wpclife.controller;
 
 import com.wpclife.dto.ScheduleRequest;
 import com.wpclife.dto.ScheduleResponse;
-import com.wpclife.model.User;
-import com.wpclife.repository.UserRepository;
+import com.wpclife.model.ScheduleJob;
+import com.wpclife.security.AuthenticatedUser;
 import com.wpclife.service.AIScheduleService;
+import com.wpclife.service.OpenAIGuard;
+import com.wpclife.service.ScheduleJobService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.Collections;
 
@@ -21,34 +30,69 @@ import java.util.Collections;
 public class AIScheduleController {
     
     private final AIScheduleService aiScheduleService;
-    private final UserRepository userRepository;
+    private final ScheduleJobService scheduleJobService;
     
     @PostMapping("/schedule")
     @PreAuthorize("hasRole('GUARDIAN')")
-    public ResponseEntity<ScheduleResponse> processSchedule(
-            @AuthenticationPrincipal UserDetails userDetails,
+    public Mono<ResponseEntity<ScheduleResponse>> processSchedule(
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Valid @RequestBody ScheduleRequest request
     ) {
-        if (userDetails == null) {
-            return ResponseEntity.status(401).body(
-                    ScheduleResponse.builder()
-                            .message("Authentication required")
-                            .items(Collections.emptyList())
-                            .build()
-            );
-        }
-        
-        User user = userRepository.findByEmail(userDetails.getUsername()).orElse(null);
         if (user == null) {
-            return ResponseEntity.status(404).body(
+            return Mono.just(ResponseEntity.status(401).body(
                     ScheduleResponse.builder()
-                            .message("User not found")
+                            .message("Authentication required")
                             .items(Collections.emptyList())
                             .build()
-            );
+            ));
         }
         
-        ScheduleResponse response = aiScheduleService.processScheduleText(request.getText(), user);
-        return ResponseEntity.ok(response);
+        return aiScheduleService.processScheduleText(request.getText(), user)
+                .map(ResponseEntity::ok)
+                .onErrorResume(OpenAIGuard.UnavailableException.class, e -> Mono.just(
+                        ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "30")
+                                .body(ScheduleResponse.builder()
+                                        .message(AIScheduleService.BUSY_MESSAGE)
+                                        .items(Collections.emptyList())
+                                        .build())));
+    }
+    
+    @PostMapping(value = "/schedule/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('GUARDIAN')")
+    public Flux<ServerSentEvent<Object>> streamSchedule(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @Valid @RequestBody ScheduleRequest request
+    ) {
+        return aiScheduleService.streamScheduleText(request.getText(), user);
+    }
+    
+    @PostMapping("/schedule/jobs")
+    @PreAuthorize("hasRole('GUARDIAN')")
+    public ResponseEntity<ScheduleJob> submitScheduleJob(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @Valid @RequestBody ScheduleRequest request
+    ) {
+        return ResponseEntity.accepted().body(scheduleJobService.submit(request.getText(), user));
+    }
+    
+    @GetMapping("/schedule/jobs/{id}")
+    public ResponseEntity<ScheduleJob> getScheduleJob(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable String id
+    ) {
+        return scheduleJobService.findJob(id, user)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping(value = "/schedule/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToScheduleJob(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable String id
+    ) {
+        ScheduleJob job = scheduleJobService.findJob(id, user)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Job not found"));
+        return scheduleJobService.subscribe(job);
     }
 }
@@ -1,16 +1,26 @@
 package com.wpclife.controller;
 
 import com.wpclife.dto.CreateEventRequest;
+import com.wpclife.dto.UpdateEventRequest;
 import com.wpclife.model.CalendarEvent;
-import com.wpclife.model.User;
 import com.wpclife.repository.CalendarEventRepository;
-import com.wpclife.repository.UserRepository;
+import com.wpclife.security.AuthenticatedUser;
+import com.wpclife.service.HouseholdVersionService;
+import com.wpclife.service.KeysetPager;
+import com.wpclife.service.SyncService;
+import com.wpclife.service.VersionedUpdates;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -21,33 +31,38 @@ import java.util.List;
 public class CalendarController {
     
     private final CalendarEventRepository eventRepository;
-    private final UserRepository userRepository;
+    private final KeysetPager keysetPager;
+    private final HouseholdVersionService householdVersions;
+    private final SyncService syncService;
+    private final VersionedUpdates versionedUpdates;
     
     @GetMapping
-    public ResponseEntity<List<CalendarEvent>> getEvents(
-            @AuthenticationPrincipal UserDetails userDetails,
+    public ResponseEntity<List<?>> getEvents(
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestParam(required = false) LocalDateTime start,
-            @RequestParam(required = false) LocalDateTime end
+            @RequestParam(required = false) LocalDateTime end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            WebRequest request
     ) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
+        if (householdVersions.notModified(request, user.getHouseholdId(), HouseholdVersionService.Resource.EVENTS)) {
+            return null;
+        }
+        Criteria criteria = Criteria.where("householdId").is(user.getHouseholdId());
         if (start != null && end != null) {
-            return ResponseEntity.ok(
-                    eventRepository.findByHouseholdIdAndStartTimeBetween(user.getHouseholdId(), start, end)
-            );
+            // A range is bounded already, so it comes back whole and in start time order
+            criteria = criteria.and("startTime").gt(start).lt(end);
+            return keysetPager.list(CalendarEvent.class, criteria, Sort.by("startTime"), fields).toResponse();
         }
-        return ResponseEntity.ok(eventRepository.findByHouseholdId(user.getHouseholdId()));
+        return keysetPager.page(CalendarEvent.class, criteria, cursor, limit, fields).toResponse();
     }
     
     @PostMapping
     public ResponseEntity<CalendarEvent> createEvent(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Valid @RequestBody CreateEventRequest request
     ) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
         CalendarEvent event = CalendarEvent.builder()
                 .title(request.getTitle())
                 .description(request.getDescription())
@@ -61,31 +76,63 @@ public class CalendarController {
                 .updatedAt(LocalDateTime.now())
                 .build();
         
-        return ResponseEntity.ok(eventRepository.save(event));
+        CalendarEvent saved = eventRepository.save(event);
+        householdVersions.bump(saved.getHouseholdId(), HouseholdVersionService.Resource.EVENTS);
+        return ResponseEntity.ok(saved);
     }
     
     @PutMapping("/{id}")
     public ResponseEntity<CalendarEvent> updateEvent(
+            @AuthenticationPrincipal AuthenticatedUser user,
             @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody CreateEventRequest request
     ) {
-        CalendarEvent event = eventRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Event not found"));
-        
-        event.setTitle(request.getTitle());
-        event.setDescription(request.getDescription());
-        event.setStartTime(request.getStartTime());
-        event.setEndTime(request.getEndTime());
-        event.setType(request.getType());
-        event.setParticipantIds(request.getParticipantIds());
-        event.setUpdatedAt(LocalDateTime.now());
+        Update update = new Update()
+                .set("title", request.getTitle())
+                .set("description", request.getDescription())
+                .set("startTime", request.getStartTime())
+                .set("endTime", request.getEndTime())
+                .set("type", request.getType())
+                .set("participantIds", request.getParticipantIds())
+                .set("updatedAt", LocalDateTime.now());
+        return ResponseEntity.ok(applyUpdate(id, user.getHouseholdId(), update, ifMatch));
+    }
+    
+    @PatchMapping("/{id}")
+    public ResponseEntity<CalendarEvent> patchEvent(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody UpdateEventRequest request
+    ) {
+        Update update = new Update().set("updatedAt", LocalDateTime.now());
+        if (request.getTitle() != null) update.set("title", request.getTitle());
+        if (request.getDescription() != null) update.set("description", request.getDescription());
+        if (request.getStartTime() != null) update.set("startTime", request.getStartTime());
+        if (request.getEndTime() != null) update.set("endTime", request.getEndTime());
+        if (request.getType() != null) update.set("type", request.getType());
+        if (request.getParticipantIds() != null) update.set("participantIds", request.getParticipantIds());
         
-        return ResponseEntity.ok(eventRepository.save(event));
+        return ResponseEntity.ok(applyUpdate(id, user.getHouseholdId(), update, ifMatch));
     }
     
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteEvent(@PathVariable String id) {
-        eventRepository.deleteById(id);
+    public ResponseEntity<Void> deleteEvent(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable String id
+    ) {
+        if (syncService.delete(CalendarEvent.class, id, user.getHouseholdId()) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Event not found");
+        }
+        householdVersions.bump(user.getHouseholdId(), HouseholdVersionService.Resource.EVENTS);
         return ResponseEntity.noContent().build();
     }
+    
+    private CalendarEvent applyUpdate(String id, String householdId, Update update, String ifMatch) {
+        CalendarEvent event = versionedUpdates.update(CalendarEvent.class, id, householdId, null, update,
+                VersionedUpdates.parseVersion(ifMatch), "Event not found");
+        householdVersions.bump(event.getHouseholdId(), HouseholdVersionService.Resource.EVENTS);
+        return event;
+    }
 }
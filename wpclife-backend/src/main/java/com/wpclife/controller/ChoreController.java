@@ -1,21 +1,27 @@
 package com.wpclife.controller;
 
+import com.wpclife.dto.ChoreStats;
 import com.wpclife.dto.CreateChoreRequest;
 import com.wpclife.model.Chore;
-import com.wpclife.model.User;
 import com.wpclife.repository.ChoreRepository;
-import com.wpclife.repository.UserRepository;
+import com.wpclife.security.AuthenticatedUser;
+import com.wpclife.service.ChoreService;
+import com.wpclife.service.HouseholdVersionService;
+import com.wpclife.service.KeysetPager;
+import com.wpclife.service.VersionedUpdates;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/chores")
@@ -23,46 +29,54 @@ import java.util.stream.Collectors;
 public class ChoreController {
     
     private final ChoreRepository choreRepository;
-    private final UserRepository userRepository;
+    private final ChoreService choreService;
+    private final KeysetPager keysetPager;
+    private final HouseholdVersionService householdVersions;
     
     @GetMapping
-    public ResponseEntity<List<Chore>> getChores(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return ResponseEntity.ok(choreRepository.findByHouseholdId(user.getHouseholdId()));
+    public ResponseEntity<List<?>> getChores(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            WebRequest request
+    ) {
+        if (householdVersions.notModified(request, user.getHouseholdId(), HouseholdVersionService.Resource.CHORES)) {
+            return null;
+        }
+        return keysetPager.page(Chore.class, Criteria.where("householdId").is(user.getHouseholdId()), cursor, limit, fields)
+                .toResponse();
     }
     
     @GetMapping("/pending")
-    public ResponseEntity<List<Chore>> getPendingChores(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public ResponseEntity<List<Chore>> getPendingChores(@AuthenticationPrincipal AuthenticatedUser user) {
         return ResponseEntity.ok(choreRepository.findByHouseholdIdAndCompleted(user.getHouseholdId(), false));
     }
     
     @GetMapping("/leaderboard")
-    public ResponseEntity<Map<String, Integer>> getLeaderboard(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        List<Chore> completedChores = choreRepository.findByHouseholdIdAndCompleted(user.getHouseholdId(), true);
-        
-        Map<String, Integer> leaderboard = completedChores.stream()
-                .collect(Collectors.groupingBy(
-                        Chore::getAssignedToId,
-                        Collectors.summingInt(Chore::getPoints)
-                ));
-        
-        return ResponseEntity.ok(leaderboard);
+    public ResponseEntity<Map<String, Integer>> getLeaderboard(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(choreService.leaderboard(user.getHouseholdId()));
+    }
+    
+    @GetMapping("/stats")
+    public ResponseEntity<ChoreStats> getStats(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(defaultValue = "WEEK") ChoreStats.Window window
+    ) {
+        return ResponseEntity.ok(choreService.stats(user.getHouseholdId(), window));
+    }
+    
+    @PostMapping("/leaderboard/rebuild")
+    @PreAuthorize("hasRole('GUARDIAN')")
+    public ResponseEntity<Map<String, Integer>> rebuildLeaderboard(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(choreService.rebuildLeaderboard(user.getHouseholdId()).getPoints());
     }
     
     @PostMapping
     public ResponseEntity<Chore> createChore(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Valid @RequestBody CreateChoreRequest request
     ) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
         Chore chore = Chore.builder()
                 .title(request.getTitle())
                 .description(request.getDescription())
@@ -77,24 +91,36 @@ public class ChoreController {
                 .updatedAt(LocalDateTime.now())
                 .build();
         
-        return ResponseEntity.ok(choreRepository.save(chore));
+        Chore saved = choreRepository.save(chore);
+        choreService.invalidateStats(saved.getHouseholdId());
+        householdVersions.bump(saved.getHouseholdId(), HouseholdVersionService.Resource.CHORES);
+        return ResponseEntity.ok(saved);
     }
     
     @PatchMapping("/{id}/complete")
-    public ResponseEntity<Chore> completeChore(@PathVariable String id) {
-        Chore chore = choreRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Chore not found"));
-        
-        chore.setCompleted(true);
-        chore.setCompletedAt(LocalDateTime.now());
-        chore.setUpdatedAt(LocalDateTime.now());
-        
-        return ResponseEntity.ok(choreRepository.save(chore));
+    public ResponseEntity<Chore> completeChore(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        return ResponseEntity.ok(choreService.complete(id, user.getHouseholdId(), VersionedUpdates.parseVersion(ifMatch)));
+    }
+    
+    @PatchMapping("/{id}/uncomplete")
+    public ResponseEntity<Chore> uncompleteChore(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        return ResponseEntity.ok(choreService.uncomplete(id, user.getHouseholdId(), VersionedUpdates.parseVersion(ifMatch)));
     }
     
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteChore(@PathVariable String id) {
-        choreRepository.deleteById(id);
+    public ResponseEntity<Void> deleteChore(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable String id
+    ) {
+        choreService.delete(id, user.getHouseholdId());
         return ResponseEntity.noContent().build();
     }
 }
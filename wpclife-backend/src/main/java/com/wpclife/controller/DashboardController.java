@@ -0,0 +1,22 @@
+package com.wpclife.controller;
+
+import com.wpclife.dto.DashboardResponse;
+import com.wpclife.security.AuthenticatedUser;
+import com.wpclife.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+    
+    private final DashboardService dashboardService;
+    
+    @GetMapping
+    public ResponseEntity<DashboardResponse> getDashboard(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(dashboardService.load(user));
+    }
+}
@@ -1,16 +1,27 @@
 package com.wpclife.controller;
 
 import com.wpclife.dto.CreateGroceryRequest;
+import com.wpclife.dto.DeletionResult;
 import com.wpclife.model.GroceryItem;
-import com.wpclife.model.User;
 import com.wpclife.repository.GroceryItemRepository;
-import com.wpclife.repository.UserRepository;
+import com.wpclife.security.AuthenticatedUser;
+import com.wpclife.service.CascadeDeletionService;
+import com.wpclife.service.HouseholdVersionService;
+import com.wpclife.service.KeysetPager;
+import com.wpclife.service.SyncService;
+import com.wpclife.service.VersionedUpdates;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.BooleanOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -21,30 +32,37 @@ import java.util.List;
 public class GroceryController {
     
     private final GroceryItemRepository groceryRepository;
-    private final UserRepository userRepository;
+    private final CascadeDeletionService cascadeDeletionService;
+    private final KeysetPager keysetPager;
+    private final HouseholdVersionService householdVersions;
+    private final SyncService syncService;
+    private final VersionedUpdates versionedUpdates;
     
     @GetMapping
-    public ResponseEntity<List<GroceryItem>> getGroceries(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return ResponseEntity.ok(groceryRepository.findByHouseholdId(user.getHouseholdId()));
+    public ResponseEntity<List<?>> getGroceries(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            WebRequest request
+    ) {
+        if (householdVersions.notModified(request, user.getHouseholdId(), HouseholdVersionService.Resource.GROCERIES)) {
+            return null;
+        }
+        return keysetPager.page(GroceryItem.class, Criteria.where("householdId").is(user.getHouseholdId()), cursor, limit, fields)
+                .toResponse();
     }
     
     @GetMapping("/pending")
-    public ResponseEntity<List<GroceryItem>> getPendingGroceries(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public ResponseEntity<List<GroceryItem>> getPendingGroceries(@AuthenticationPrincipal AuthenticatedUser user) {
         return ResponseEntity.ok(groceryRepository.findByHouseholdIdAndChecked(user.getHouseholdId(), false));
     }
     
     @PostMapping
     public ResponseEntity<GroceryItem> addGroceryItem(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Valid @RequestBody CreateGroceryRequest request
     ) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
         GroceryItem item = GroceryItem.builder()
                 .name(request.getName())
                 .category(request.getCategory())
@@ -56,34 +74,41 @@ public class GroceryController {
                 .updatedAt(LocalDateTime.now())
                 .build();
         
-        return ResponseEntity.ok(groceryRepository.save(item));
+        GroceryItem saved = groceryRepository.save(item);
+        householdVersions.bump(saved.getHouseholdId(), HouseholdVersionService.Resource.GROCERIES);
+        return ResponseEntity.ok(saved);
     }
     
     @PatchMapping("/{id}/toggle")
-    public ResponseEntity<GroceryItem> toggleItem(@PathVariable String id) {
-        GroceryItem item = groceryRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Item not found"));
-        
-        item.setChecked(!item.isChecked());
-        item.setUpdatedAt(LocalDateTime.now());
-        
-        return ResponseEntity.ok(groceryRepository.save(item));
+    public ResponseEntity<GroceryItem> toggleItem(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        // Flipped by the server, so two quick taps from different phones both take effect
+        AggregationUpdate toggle = AggregationUpdate.update()
+                .set("checked").toValue(BooleanOperators.Not.not("checked"))
+                .set("updatedAt").toValue("$$NOW");
+        GroceryItem item = versionedUpdates.update(GroceryItem.class, id, user.getHouseholdId(), null, toggle,
+                VersionedUpdates.parseVersion(ifMatch), "Item not found");
+        householdVersions.bump(item.getHouseholdId(), HouseholdVersionService.Resource.GROCERIES);
+        return ResponseEntity.ok(item);
     }
     
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteItem(@PathVariable String id) {
-        groceryRepository.deleteById(id);
+    public ResponseEntity<Void> deleteItem(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable String id
+    ) {
+        if (syncService.delete(GroceryItem.class, id, user.getHouseholdId()) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Item not found");
+        }
+        householdVersions.bump(user.getHouseholdId(), HouseholdVersionService.Resource.GROCERIES);
         return ResponseEntity.noContent().build();
     }
     
     @DeleteMapping("/clear-checked")
-    public ResponseEntity<Void> clearCheckedItems(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        List<GroceryItem> checkedItems = groceryRepository.findByHouseholdIdAndChecked(user.getHouseholdId(), true);
-        groceryRepository.deleteAll(checkedItems);
-        
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<DeletionResult> clearCheckedItems(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(cascadeDeletionService.clearCheckedGroceries(user.getHouseholdId()));
     }
 }
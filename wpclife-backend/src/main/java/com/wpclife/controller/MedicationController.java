@@ -1,19 +1,23 @@
 package com.wpclife.controller;
 
 import com.wpclife.dto.CreateMedicationRequest;
+import com.wpclife.dto.DeletionResult;
 import com.wpclife.dto.LogMedicationRequest;
 import com.wpclife.model.Medication;
 import com.wpclife.model.MedicationLog;
-import com.wpclife.model.User;
-import com.wpclife.repository.MedicationLogRepository;
 import com.wpclife.repository.MedicationRepository;
-import com.wpclife.repository.UserRepository;
+import com.wpclife.security.AuthenticatedUser;
+import com.wpclife.service.CascadeDeletionService;
+import com.wpclife.service.HouseholdVersionService;
+import com.wpclife.service.KeysetPager;
+import com.wpclife.service.MedicationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -24,24 +28,31 @@ import java.util.List;
 public class MedicationController {
     
     private final MedicationRepository medicationRepository;
-    private final MedicationLogRepository logRepository;
-    private final UserRepository userRepository;
+    private final MedicationService medicationService;
+    private final CascadeDeletionService cascadeDeletionService;
+    private final KeysetPager keysetPager;
+    private final HouseholdVersionService householdVersions;
     
     @GetMapping
-    public ResponseEntity<List<Medication>> getMedications(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return ResponseEntity.ok(medicationRepository.findByHouseholdId(user.getHouseholdId()));
+    public ResponseEntity<List<?>> getMedications(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            WebRequest request
+    ) {
+        if (householdVersions.notModified(request, user.getHouseholdId(), HouseholdVersionService.Resource.MEDICATIONS)) {
+            return null;
+        }
+        return keysetPager.page(Medication.class, Criteria.where("householdId").is(user.getHouseholdId()), cursor, limit, fields)
+                .toResponse();
     }
     
     @PostMapping
     public ResponseEntity<Medication> createMedication(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Valid @RequestBody CreateMedicationRequest request
     ) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
         Medication medication = Medication.builder()
                 .name(request.getName())
                 .dosage(request.getDosage())
@@ -56,59 +67,46 @@ public class MedicationController {
                 .updatedAt(LocalDateTime.now())
                 .build();
         
-        return ResponseEntity.ok(medicationRepository.save(medication));
+        Medication saved = medicationRepository.save(medication);
+        householdVersions.bump(saved.getHouseholdId(), HouseholdVersionService.Resource.MEDICATIONS);
+        return ResponseEntity.ok(saved);
     }
     
     @PostMapping("/log")
     public ResponseEntity<MedicationLog> logMedication(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Valid @RequestBody LogMedicationRequest request
     ) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Medication medication = medicationRepository.findById(request.getMedicationId())
-                .orElseThrow(() -> new RuntimeException("Medication not found"));
-        
-        if (request.getStatus() == MedicationLog.Status.TAKEN && medication.getInventory() > 0) {
-            medication.setInventory(medication.getInventory() - 1);
-            medicationRepository.save(medication);
-        }
-        
-        MedicationLog log = MedicationLog.builder()
-                .medicationId(request.getMedicationId())
-                .userId(user.getId())
-                .status(request.getStatus())
-                .scheduledTime(request.getScheduledTime())
-                .takenTime(request.getTakenTime() != null ? request.getTakenTime() : LocalDateTime.now())
-                .notes(request.getNotes())
-                .householdId(user.getHouseholdId())
-                .createdAt(LocalDateTime.now())
-                .build();
-        
-        return ResponseEntity.ok(logRepository.save(log));
+        return ResponseEntity.ok(medicationService.logDose(user, request));
     }
     
     @GetMapping("/{id}/logs")
-    public ResponseEntity<List<MedicationLog>> getMedicationLogs(@PathVariable String id) {
-        return ResponseEntity.ok(logRepository.findByMedicationId(id));
+    public ResponseEntity<List<?>> getMedicationLogs(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable String id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields
+    ) {
+        Criteria criteria = Criteria.where("medicationId").is(id).and("householdId").is(user.getHouseholdId());
+        return keysetPager.page(MedicationLog.class, criteria, cursor, limit, fields)
+                .toResponse();
     }
     
     @PatchMapping("/{id}/inventory")
     public ResponseEntity<Medication> updateInventory(
+            @AuthenticationPrincipal AuthenticatedUser user,
             @PathVariable String id,
             @RequestBody int quantity
     ) {
-        Medication medication = medicationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Medication not found"));
-        medication.setInventory(quantity);
-        medication.setUpdatedAt(LocalDateTime.now());
-        return ResponseEntity.ok(medicationRepository.save(medication));
+        return ResponseEntity.ok(medicationService.setInventory(id, user.getHouseholdId(), quantity));
     }
     
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteMedication(@PathVariable String id) {
-        medicationRepository.deleteById(id);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<DeletionResult> deleteMedication(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable String id
+    ) {
+        return ResponseEntity.ok(cascadeDeletionService.deleteMedication(id, user.getHouseholdId()));
     }
 }
@@ -1,13 +1,11 @@
 package com.wpclife.controller;
 
 import com.wpclife.model.DeviceToken;
-import com.wpclife.model.User;
 import com.wpclife.repository.DeviceTokenRepository;
-import com.wpclife.repository.UserRepository;
+import com.wpclife.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -19,16 +17,12 @@ import java.util.Map;
 public class NotificationController {
     
     private final DeviceTokenRepository tokenRepository;
-    private final UserRepository userRepository;
     
     @PostMapping("/register")
     public ResponseEntity<Void> registerDevice(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestBody Map<String, String> request
     ) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
         String token = request.get("token");
         
         if (tokenRepository.findByToken(token).isEmpty()) {
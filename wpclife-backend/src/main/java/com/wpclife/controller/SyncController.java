@@ -0,0 +1,26 @@
+package com.wpclife.controller;
+
+import com.wpclife.dto.SyncResponse;
+import com.wpclife.security.AuthenticatedUser;
+import com.wpclife.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncController {
+    
+    private final SyncService syncService;
+    
+    @GetMapping
+    public ResponseEntity<SyncResponse> sync(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(syncService.changes(user.getHouseholdId(), since, limit));
+    }
+}
@@ -3,11 +3,14 @@ package com.wpclife.controller;
 import com.wpclife.model.Household;
 import com.wpclife.model.User;
 import com.wpclife.repository.HouseholdRepository;
-import com.wpclife.repository.UserRepository;
+import com.wpclife.security.AuthenticatedUser;
+import com.wpclife.service.FieldProjection;
+import com.wpclife.service.UserCacheService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -17,34 +20,31 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserController {
     
-    private final UserRepository userRepository;
     private final HouseholdRepository householdRepository;
+    private final UserCacheService userCacheService;
+    private final FieldProjection fieldProjection;
     
     @GetMapping("/me")
-    public ResponseEntity<User> getCurrentUser(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
+    public ResponseEntity<User> getCurrentUser(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        User user = userCacheService.findById(currentUser.getId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         user.setPassword(null);
         return ResponseEntity.ok(user);
     }
     
     @GetMapping("/household")
-    public ResponseEntity<List<User>> getHouseholdMembers(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        List<User> members = userRepository.findByHouseholdId(user.getHouseholdId());
-        members.forEach(m -> m.setPassword(null));
-        
-        return ResponseEntity.ok(members);
+    public ResponseEntity<List<?>> getHouseholdMembers(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestParam(required = false) String fields
+    ) {
+        // The password hash is never read, not just blanked before serialization
+        Query query = Query.query(Criteria.where("householdId").is(currentUser.getHouseholdId()));
+        return ResponseEntity.ok(fieldProjection.find(User.class, query, fields));
     }
     
     @GetMapping("/household/invite-code")
-    public ResponseEntity<String> getInviteCode(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Household household = householdRepository.findById(user.getHouseholdId())
+    public ResponseEntity<String> getInviteCode(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        Household household = householdRepository.findById(currentUser.getHouseholdId())
                 .orElseThrow(() -> new RuntimeException("Household not found"));
         
         return ResponseEntity.ok(household.getInviteCode());
@@ -52,16 +52,16 @@ public class UserController {
     
     @PatchMapping("/me")
     public ResponseEntity<User> updateProfile(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @RequestBody User updates
     ) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
+        User user = userCacheService.findById(currentUser.getId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         if (updates.getName() != null) user.setName(updates.getName());
         if (updates.getAvatar() != null) user.setAvatar(updates.getAvatar());
         
-        user = userRepository.save(user);
+        user = userCacheService.save(user);
         user.setPassword(null);
         
         return ResponseEntity.ok(user);
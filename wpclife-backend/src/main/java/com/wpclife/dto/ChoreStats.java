@@ -0,0 +1,36 @@
+package com.wpclife.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChoreStats {
+    private Window window;
+    private LocalDateTime from;
+    private List<MemberStats> members;
+    
+    public enum Window {
+        WEEK, MONTH, ALL
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MemberStats {
+        private String memberId;
+        private int points;
+        private int completed;
+        private int due;
+        private int dueCompleted;
+        private Double completionRate;
+    }
+}
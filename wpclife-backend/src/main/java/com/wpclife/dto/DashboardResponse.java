@@ -0,0 +1,31 @@
+package com.wpclife.dto;
+
+import com.wpclife.model.CalendarEvent;
+import com.wpclife.model.Chore;
+import com.wpclife.model.GroceryItem;
+import com.wpclife.model.Medication;
+import com.wpclife.model.MedicationLog;
+import com.wpclife.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardResponse {
+    private User user;
+    private List<?> members;
+    private List<Chore> pendingChores;
+    private List<GroceryItem> pendingGroceries;
+    private List<Medication> medications;
+    private List<MedicationLog> todayMedicationLogs;
+    private List<CalendarEvent> upcomingEvents;
+    
+    // Sections left null because they failed or ran past their time budget
+    private List<String> unavailable;
+}
@@ -0,0 +1,19 @@
+package com.wpclife.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeletionResult {
+    private long deleted;
+    
+    // Dependent documents found at request time, removed or detached in the background
+    private Map<String, Long> cleanup;
+}
@@ -0,0 +1,37 @@
+package com.wpclife.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * One item extracted from a schedule text, either by the model or by the local fast path.
+ * Field names match the JSON the model is prompted to return.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ExtractedItem(
+        String type,
+        String title,
+        String description,
+        String dateTime,
+        String endDateTime,
+        Integer points,
+        String dosage,
+        @JsonFormat(with = JsonFormat.Feature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+        List<String> times,
+        String category
+) {
+    
+    public static ExtractedItem grocery(String title, String category) {
+        return new ExtractedItem("grocery", title, null, null, null, null, null, null, category);
+    }
+    
+    public static ExtractedItem medication(String title, String dosage, List<String> times) {
+        return new ExtractedItem("medication", title, null, null, null, null, dosage, times, null);
+    }
+    
+    public static ExtractedItem event(String title, String dateTime) {
+        return new ExtractedItem("event", title, null, dateTime, null, null, null, null, null);
+    }
+}
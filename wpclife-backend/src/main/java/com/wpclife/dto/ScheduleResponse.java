@@ -18,6 +18,7 @@ public class ScheduleResponse {
     private int eventsCreated;
     private int medicationsCreated;
     private int groceriesCreated;
+    private List<FailedItem> failedItems;
     
     @Data
     @Builder
@@ -30,4 +31,14 @@ public class ScheduleResponse {
         private String dateTime;
         private Integer points;
     }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FailedItem {
+        private String type;
+        private String title;
+        private String reason;
+    }
 }
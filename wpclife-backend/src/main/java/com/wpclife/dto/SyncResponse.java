@@ -0,0 +1,24 @@
+package com.wpclife.dto;
+
+import com.wpclife.model.SyncTombstone;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponse {
+    // Created or updated documents by section: chores, events, medications, medicationLogs, groceries
+    private Map<String, List<?>> changes;
+    private List<SyncTombstone> deleted;
+    
+    // Pass back as since; while hasMore is true it continues this sync, afterwards it is the watermark
+    private String nextToken;
+    private boolean hasMore;
+}
@@ -0,0 +1,23 @@
+package com.wpclife.dto;
+
+import com.wpclife.model.CalendarEvent;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Partial event update; only the fields that are present are changed.
+ */
+@Data
+public class UpdateEventRequest {
+    @Pattern(regexp = ".*\\S.*", message = "Title must not be blank")
+    private String title;
+    
+    private String description;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private CalendarEvent.EventType type;
+    private List<String> participantIds;
+}
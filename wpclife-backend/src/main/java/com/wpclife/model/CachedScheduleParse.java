@@ -0,0 +1,27 @@
+package com.wpclife.model;
+
+import com.wpclife.dto.ExtractedItem;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "ai_parse_cache")
+public class CachedScheduleParse {
+    @Id
+    private String id;
+    
+    private List<ExtractedItem> items;
+    
+    // Expires after ai.cache.ttl-minutes, see MongoIndexInitializer
+    private LocalDateTime createdAt;
+}
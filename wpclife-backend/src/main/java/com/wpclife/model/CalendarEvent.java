@@ -37,6 +37,8 @@ public class CalendarEvent {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
+    private Long version;
+    
     public enum EventType {
         FAMILY, SCHOOL, MEDICAL, OTHER
     }
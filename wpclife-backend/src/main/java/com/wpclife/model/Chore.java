@@ -38,4 +38,7 @@ public class Chore {
     private String createdBy;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    
+    // Bumped by every field-level update; clients send it back in If-Match to detect conflicts
+    private Long version;
 }
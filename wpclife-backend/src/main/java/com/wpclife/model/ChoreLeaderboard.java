@@ -0,0 +1,33 @@
+package com.wpclife.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Running point totals per member for one household, kept up to date with $inc as chores are
+ * completed, un-completed and deleted. Every increment also bumps {@code revision}, which a
+ * recount checks before writing. {@code rebuiltAt} is only set by a full recount, so a document
+ * created by an increment alone may be missing older history.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "chore_leaderboards")
+public class ChoreLeaderboard {
+    @Id
+    private String householdId;
+    
+    private Map<String, Integer> points;
+    private long revision;
+    
+    private LocalDateTime rebuiltAt;
+    private LocalDateTime updatedAt;
+}
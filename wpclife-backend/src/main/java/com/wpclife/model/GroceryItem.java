@@ -34,6 +34,8 @@ public class GroceryItem {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
+    private Long version;
+    
     public enum Category {
         PRODUCE, DAIRY, MEAT, PANTRY, OTHER
     }
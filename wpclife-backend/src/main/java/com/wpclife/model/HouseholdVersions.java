@@ -0,0 +1,27 @@
+package com.wpclife.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Per-household change counters, one per list the clients poll. Each is incremented after every
+ * write to that list and never goes down, so an unchanged number means an unchanged list.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "household_versions")
+public class HouseholdVersions {
+    @Id
+    private String householdId;
+    
+    private long chores;
+    private long groceries;
+    private long medications;
+    private long events;
+}
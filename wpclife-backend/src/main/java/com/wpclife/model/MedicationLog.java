@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
 
@@ -35,6 +36,11 @@ public class MedicationLog {
     private String householdId;
     
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    // Medication inventory right after this dose was logged; returned to the client, not stored
+    @Transient
+    private Integer remainingInventory;
     
     public enum Status {
         TAKEN, SKIPPED, MISSED
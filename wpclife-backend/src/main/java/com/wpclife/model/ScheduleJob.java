@@ -0,0 +1,42 @@
+package com.wpclife.model;
+
+import com.wpclife.dto.ScheduleResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "schedule_jobs")
+public class ScheduleJob {
+    @Id
+    private String id;
+    
+    private String userId;
+    
+    private String userEmail;
+    private User.Role userRole;
+    private String householdId;
+    
+    private String text;
+    
+    private Status status;
+    
+    private ScheduleResponse result;
+    private String error;
+    
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+    
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+}
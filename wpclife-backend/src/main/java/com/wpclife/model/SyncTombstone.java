@@ -0,0 +1,35 @@
+package com.wpclife.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Marks a deleted document so clients syncing changes learn to drop it. Tombstones expire after
+ * {@link #RETENTION}; a client whose watermark is older than that has to resync from scratch.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "sync_tombstones")
+public class SyncTombstone {
+    public static final Duration RETENTION = Duration.ofDays(30);
+    
+    @Id
+    private String id;
+    
+    private String householdId;
+    
+    // Sync section the document belonged to, e.g. "chores" or "medicationLogs"
+    private String type;
+    private String entityId;
+    
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,26 @@
+package com.wpclife.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "token_revocations")
+public class TokenRevocation {
+    @Id
+    private String userId;
+    
+    // Epoch millis; access tokens issued before this are rejected
+    private long notBefore;
+    
+    // Once every token from before notBefore has expired; removed by a TTL index, see MongoIndexInitializer
+    private LocalDateTime expiresAt;
+}
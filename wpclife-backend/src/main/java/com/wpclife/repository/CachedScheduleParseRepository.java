@@ -0,0 +1,9 @@
+package com.wpclife.repository;
+
+import com.wpclife.model.CachedScheduleParse;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CachedScheduleParseRepository extends MongoRepository<CachedScheduleParse, String> {
+}
@@ -0,0 +1,14 @@
+package com.wpclife.repository;
+
+import com.wpclife.model.ScheduleJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ScheduleJobRepository extends MongoRepository<ScheduleJob, String> {
+    Optional<ScheduleJob> findByIdAndUserId(String id, String userId);
+    List<ScheduleJob> findByStatus(ScheduleJob.Status status);
+}
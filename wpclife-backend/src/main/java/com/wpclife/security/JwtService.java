@@ -1,22 +1,37 @@
 package com.wpclife.security;
 
+import com.wpclife.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.DecodingException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
     
+    static final String USER_ID_CLAIM = "uid";
+    static final String HOUSEHOLD_ID_CLAIM = "hid";
+    static final String ROLE_CLAIM = "role";
+    
+    private static final int MIN_KEY_BYTES = 32;
+    
+    private final TokenRevocationRegistry revocationRegistry;
+    
     @Value("${security.jwt.secret}")
     private String secretKey;
     
@@ -26,17 +41,72 @@ public class JwtService {
     @Value("${security.jwt.refresh-expiration}")
     private long refreshExpiration;
     
+    @Value("${security.jwt.claims-cache-size:10000}")
+    private int claimsCacheSize;
+    
+    private SecretKey signInKey;
+    private JwtParser jwtParser;
+    private VerifiedClaimsCache claimsCache;
+    
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(signingKeyBytes(secretKey));
+        jwtParser = Jwts.parser().verifyWith(signInKey).build();
+        claimsCache = new VerifiedClaimsCache(claimsCacheSize);
+    }
+    
+    /**
+     * Accepts a base64-encoded secret, or a plain-text one for secrets that are not valid base64
+     * (such as the development default). Either way the key must be at least 256 bits.
+     */
+    static byte[] signingKeyBytes(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("security.jwt.secret (JWT_SECRET) must be set");
+        }
+        byte[] keyBytes;
+        try {
+            keyBytes = Decoders.BASE64.decode(secret);
+        } catch (DecodingException e) {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        if (keyBytes.length < MIN_KEY_BYTES) {
+            throw new IllegalStateException("security.jwt.secret (JWT_SECRET) must be at least "
+                    + MIN_KEY_BYTES + " bytes for HS256, got " + keyBytes.length);
+        }
+        return keyBytes;
+    }
+    
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
     
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = extractVerifiedClaims(token);
         return claimsResolver.apply(claims);
     }
     
+    /**
+     * Returns the claims of a token whose signature and expiry have been verified.
+     * Each distinct token is parsed once; repeat presentations are served from the cache
+     * until the token expires.
+     */
+    public Claims extractVerifiedClaims(String token) {
+        Claims claims = claimsCache.get(token);
+        if (claims == null) {
+            claims = jwtParser.parseSignedClaims(token).getPayload();
+            claimsCache.put(token, claims);
+        }
+        return claims;
+    }
+    
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof AuthenticatedUser user) {
+            claims.put(USER_ID_CLAIM, user.getId());
+            claims.put(HOUSEHOLD_ID_CLAIM, user.getHouseholdId());
+            claims.put(ROLE_CLAIM, user.getRole().name());
+        }
+        return generateToken(claims, userDetails);
     }
     
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
@@ -53,33 +123,44 @@ public class JwtService {
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .signWith(signInKey)
                 .compact();
     }
     
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(extractVerifiedClaims(token), userDetails);
     }
     
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject();
+        return (username.equals(userDetails.getUsername())) && !isTokenExpired(claims) && !isTokenRevoked(claims);
     }
     
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Builds the request principal straight from the token, or returns null for tokens
+     * issued without identity claims (refresh tokens and tokens minted before they existed).
+     */
+    public AuthenticatedUser extractPrincipal(Claims claims) {
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+        return new AuthenticatedUser(
+                userId,
+                claims.getSubject(),
+                null,
+                claims.get(HOUSEHOLD_ID_CLAIM, String.class),
+                User.Role.valueOf(role)
+        );
     }
     
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private boolean isTokenRevoked(Claims claims) {
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        return userId != null && revocationRegistry.isRevoked(userId, claims.getIssuedAt());
     }
     
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 }
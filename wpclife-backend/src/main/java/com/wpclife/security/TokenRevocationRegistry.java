@@ -0,0 +1,106 @@
+package com.wpclife.security;
+
+import com.wpclife.model.TokenRevocation;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks users whose access tokens must be re-issued because claims baked into them
+ * (role, household) are no longer accurate. Tokens issued before the recorded instant
+ * are rejected, which sends the client through the refresh flow for fresh claims.
+ * <p>
+ * Revocations are stored in Mongo so every instance sees them, and expire there once the tokens
+ * they cover have. Each instance checks its own copy, so requests stay free of database reads,
+ * and picks up revocations made elsewhere within {@code security.revocation.refresh-seconds}.
+ */
+@Component
+@Slf4j
+public class TokenRevocationRegistry {
+    
+    private final MongoTemplate mongoTemplate;
+    private final long jwtExpiration;
+    
+    private final Map<String, Long> notBefore = new ConcurrentHashMap<>();
+    private volatile LocalDateTime refreshedAt;
+    
+    public TokenRevocationRegistry(
+            MongoTemplate mongoTemplate,
+            @Value("${security.jwt.expiration}") long jwtExpiration
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.jwtExpiration = jwtExpiration;
+    }
+    
+    public void revokeIssuedTokens(String userId) {
+        long now = System.currentTimeMillis();
+        // JWT iat has second precision, so align the cut-off to the start of the current second
+        long cutOff = now - now % 1000;
+        notBefore.put(userId, cutOff);
+        notBefore.values().removeIf(existing -> existing < now - jwtExpiration);
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(userId)),
+                    new Update().set("notBefore", cutOff).set("expiresAt", expiryOf(cutOff)),
+                    TokenRevocation.class);
+        } catch (DataAccessException e) {
+            // Still enforced here; other instances accept the old tokens until they expire
+            log.error("Could not store token revocation for user {}", userId, e);
+        }
+    }
+    
+    public boolean isRevoked(String userId, Date issuedAt) {
+        Long cutOff = notBefore.get(userId);
+        return cutOff != null && (issuedAt == null || issuedAt.getTime() < cutOff);
+    }
+    
+    @PostConstruct
+    void load() {
+        refresh();
+    }
+    
+    /**
+     * Copies in revocations stored since the last refresh. expiresAt is the revocation time plus the
+     * token lifetime, so "stored since" is a range on the TTL index.
+     */
+    @Scheduled(fixedDelayString = "${security.revocation.refresh-seconds:10}",
+            initialDelayString = "${security.revocation.refresh-seconds:10}", timeUnit = TimeUnit.SECONDS)
+    public void refresh() {
+        LocalDateTime started = LocalDateTime.now();
+        LocalDateTime expiringAfter = refreshedAt == null
+                // First load: everything that hasn't expired yet
+                ? started
+                // A little overlap so a revocation written during the previous read isn't missed
+                : refreshedAt.minusSeconds(5).plus(Duration.ofMillis(jwtExpiration));
+        try {
+            Query query = Query.query(Criteria.where("expiresAt").gt(expiringAfter));
+            for (TokenRevocation revocation : mongoTemplate.find(query, TokenRevocation.class)) {
+                notBefore.merge(revocation.getUserId(), revocation.getNotBefore(), Math::max);
+            }
+            refreshedAt = started;
+        } catch (DataAccessException e) {
+            log.warn("Could not refresh token revocations: {}", e.getMessage());
+        }
+        long now = System.currentTimeMillis();
+        notBefore.values().removeIf(cutOff -> cutOff < now - jwtExpiration);
+    }
+    
+    private LocalDateTime expiryOf(long cutOff) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(cutOff + jwtExpiration), ZoneId.systemDefault());
+    }
+}
@@ -1,26 +1,41 @@
 package com.wpclife.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wpclife.dto.ExtractedItem;
 import com.wpclife.dto.ScheduleResponse;
 import com.wpclife.model.*;
-import com.wpclife.repository.*;
+import com.wpclife.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @RequiredArgsConstructor
@@ -30,14 +45,29 @@ public class AIScheduleService {
     @Value("${OPENAI_API_KEY:}")
     private String openaiApiKey;
     
-    @Value("${OPENAI_API_URL:https://api.openai.com/v1}")
-    private String openaiApiUrl;
+    @Value("${ai.chunking.threshold-chars:1500}")
+    private int chunkThresholdChars;
     
-    private final ChoreRepository choreRepository;
-    private final CalendarEventRepository calendarEventRepository;
-    private final MedicationRepository medicationRepository;
-    private final GroceryItemRepository groceryItemRepository;
+    @Value("${ai.chunking.chunk-chars:1000}")
+    private int chunkChars;
+    
+    @Value("${ai.chunking.max-parallel:4}")
+    private int chunkParallelism;
+    
+    private final MongoTemplate mongoTemplate;
+    private final ObjectProvider<MongoTransactionManager> transactionManager;
     private final ObjectMapper objectMapper;
+    private final WebClient openAIWebClient;
+    private final ScheduleParseCache parseCache;
+    private final ScheduleFastPathParser fastPathParser;
+    private final ScheduleRequestCoalescer coalescer;
+    private final OpenAIGuard openAIGuard;
+    private final ExtractedItemReader itemReader;
+    private final HouseholdVersionService householdVersions;
+    private final ChoreService choreService;
+    
+    public static final String BUSY_MESSAGE =
+            "The AI assistant is busy right now. Short lists and reminders still work, or please try again in a minute.";
     
     private static final String SYSTEM_PROMPT = """
         You are a helpful family schedule assistant. Parse the user's free-form text and extract:
@@ -64,144 +94,369 @@ public class AIScheduleService {
         
         Return ONLY valid JSON array, no markdown or explanation.
         """;
-
-    public ScheduleResponse processScheduleText(String text, User user) {
-        if (openaiApiKey == null || openaiApiKey.isBlank()) {
+    
+    // Accepts a plain date, seconds or fractions being left out, and a trailing offset or Z
+    private static final DateTimeFormatter ITEM_DATE_TIME = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE)
+            .optionalStart()
+            .appendLiteral('T')
+            .append(DateTimeFormatter.ISO_LOCAL_TIME)
+            .optionalStart()
+            .appendOffsetId()
+            .optionalEnd()
+            .optionalEnd()
+            .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
+            .toFormatter();
+    
+    public Mono<ScheduleResponse> processScheduleText(String text, AuthenticatedUser user) {
+        return coalescer.coalesce(user.getId(), text, () -> process(text, user));
+    }
+    
+    private Mono<ScheduleResponse> process(String text, AuthenticatedUser user) {
+        List<String> chunks = ScheduleTextChunker.split(text, chunkThresholdChars, chunkChars);
+        return (chunks.size() == 1 ? extractItems(text) : extractItems(chunks))
+                // Repository writes are blocking, so move them off the HTTP client's event loop
+                .publishOn(Schedulers.boundedElastic())
+                .map(items -> saveParsedItems(items, user))
+                .defaultIfEmpty(ScheduleResponse.builder()
+                        .message("Could not get a response from AI. Please try again.")
+                        .items(Collections.emptyList())
+                        .build())
+                .onErrorResume(e -> {
+                    if (e instanceof OpenAIGuard.UnavailableException) {
+                        // Rejected without calling out; the caller answers with 503
+                        return Mono.error(e);
+                    }
+                    log.error("Error processing schedule text", e);
+                    return Mono.just(ScheduleResponse.builder()
+                            .message(errorMessage(e))
+                            .items(Collections.emptyList())
+                            .build());
+                });
+    }
+    
+    private Mono<List<ExtractedItem>> extractItems(String text) {
+        return localItems(text)
+                .switchIfEmpty(Mono.defer(() -> callOpenAI(text)
+                        .filter(aiResponse -> !aiResponse.isBlank())
+                        .map(itemReader::readAll)
+                        .publishOn(Schedulers.boundedElastic())
+                        .doOnNext(items -> parseCache.put(text, items))));
+    }
+    
+    /**
+     * Long texts are split so each model call stays well under max_tokens, and the chunks are
+     * extracted concurrently. A chunk that fails only loses its own items.
+     */
+    private Mono<List<ExtractedItem>> extractItems(List<String> chunks) {
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        return Flux.fromIterable(chunks)
+                .flatMapSequential(chunk -> extractItems(chunk)
+                        .onErrorResume(e -> {
+                            log.warn("Failed to process chunk of schedule text", e);
+                            errors.add(e);
+                            return Mono.empty();
+                        }), chunkParallelism)
+                .concatMapIterable(items -> items)
+                .distinct(AIScheduleService::dedupeKey)
+                .collectList()
+                .flatMap(items -> items.isEmpty() && !errors.isEmpty()
+                        ? Mono.error(errors.get(0))
+                        : Mono.just(items));
+    }
+    
+    // Neighbouring chunks can both mention the same item, e.g. a reminder repeated in a summary
+    private static String dedupeKey(ExtractedItem item) {
+        return String.valueOf(item.type()).toLowerCase(Locale.ROOT) + '|'
+                + String.valueOf(item.title()).trim().toLowerCase(Locale.ROOT) + '|'
+                + item.dateTime();
+    }
+    
+    /**
+     * Items that can be had without calling the model: simple texts are parsed locally, anything
+     * else may already be in the parse cache. Empty when the model has to be asked.
+     */
+    private Mono<List<ExtractedItem>> localItems(String text) {
+        List<ExtractedItem> items = fastPathParser.parse(text);
+        if (items != null) {
+            return Mono.just(items);
+        }
+        // The cache may fall back to Mongo, so look it up off the caller's thread
+        return Mono.fromCallable(() -> parseCache.get(text))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+    
+    private ScheduleResponse saveParsedItems(List<ExtractedItem> parsedItems, AuthenticatedUser user) {
+        if (parsedItems.isEmpty()) {
             return ScheduleResponse.builder()
-                    .message("AI feature requires OpenAI API key. Please configure OPENAI_API_KEY in your environment.")
+                    .message("I couldn't identify any tasks, events, medications, or grocery items in your message. Please try being more specific.")
                     .items(Collections.emptyList())
                     .build();
         }
         
-        try {
-            String aiResponse = callOpenAI(text);
-            if (aiResponse == null || aiResponse.isBlank()) {
-                return ScheduleResponse.builder()
-                        .message("Could not get a response from AI. Please try again.")
-                        .items(Collections.emptyList())
-                        .build();
+        List<PendingItem> pending = new ArrayList<>();
+        List<ScheduleResponse.FailedItem> failedItems = new ArrayList<>();
+        for (ExtractedItem item : parsedItems) {
+            try {
+                pending.add(prepareItem(item, user));
+            } catch (Exception e) {
+                log.warn("Skipping item {}: {}", item, e.getMessage());
+                failedItems.add(failedItem(item, e));
             }
-            
-            List<Map<String, Object>> parsedItems = parseAIResponse(aiResponse);
-            
-            if (parsedItems.isEmpty()) {
-                return ScheduleResponse.builder()
-                        .message("I couldn't identify any tasks, events, medications, or grocery items in your message. Please try being more specific.")
-                        .items(Collections.emptyList())
-                        .build();
+        }
+        
+        Set<PendingItem> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+        MongoTransactionManager txManager = transactionManager.getIfAvailable();
+        if (txManager != null) {
+            insertAllOrNothing(pending, txManager, failed);
+        } else {
+            insertGrouped(pending, failed);
+        }
+        
+        List<ScheduleResponse.ParsedItem> responseItems = new ArrayList<>();
+        Set<HouseholdVersionService.Resource> changed = EnumSet.noneOf(HouseholdVersionService.Resource.class);
+        for (PendingItem item : pending) {
+            if (failed.contains(item)) {
+                failedItems.add(item.failure());
+            } else {
+                responseItems.add(item.response());
+                changed.add(HouseholdVersionService.Resource.of(item.entity().getClass()));
             }
-            
-            int choresCreated = 0;
-            int eventsCreated = 0;
-            int medicationsCreated = 0;
-            int groceriesCreated = 0;
-            List<ScheduleResponse.ParsedItem> responseItems = new ArrayList<>();
-            
-            for (Map<String, Object> item : parsedItems) {
-                String type = (String) item.get("type");
-                if (type == null || type.isBlank()) {
-                    log.warn("Skipping item with missing type: {}", item);
-                    continue;
-                }
-                
-                String title = (String) item.get("title");
-                if (title == null || title.isBlank()) {
-                    log.warn("Skipping item with missing title: {}", item);
-                    continue;
-                }
-                
-                String description = (String) item.get("description");
-                String dateTimeStr = (String) item.get("dateTime");
-                
-                ScheduleResponse.ParsedItem responseItem = ScheduleResponse.ParsedItem.builder()
-                        .type(type)
-                        .title(title)
-                        .description(description)
-                        .dateTime(dateTimeStr)
-                        .build();
-                
-                try {
-                    switch (type.toLowerCase()) {
-                        case "chore" -> {
-                            Chore chore = createChore(item, user);
-                            choreRepository.save(chore);
-                            choresCreated++;
-                            responseItem.setPoints(chore.getPoints());
-                        }
-                        case "event" -> {
-                            CalendarEvent event = createEvent(item, user);
-                            calendarEventRepository.save(event);
-                            eventsCreated++;
-                        }
-                        case "medication" -> {
-                            Medication medication = createMedication(item, user);
-                            medicationRepository.save(medication);
-                            medicationsCreated++;
-                        }
-                        case "grocery" -> {
-                            GroceryItem groceryItem = createGroceryItem(item, user);
-                            groceryItemRepository.save(groceryItem);
-                            groceriesCreated++;
-                        }
-                        default -> {
-                            log.warn("Unknown item type: {}", type);
-                            continue;
-                        }
-                    }
-                    responseItems.add(responseItem);
-                } catch (Exception e) {
-                    log.error("Error saving item: {}", item, e);
+        }
+        householdVersions.bump(user.getHouseholdId(), changed);
+        if (changed.contains(HouseholdVersionService.Resource.CHORES)) {
+            choreService.invalidateStats(user.getHouseholdId());
+        }
+        
+        return summarize(responseItems, failedItems);
+    }
+    
+    /**
+     * Writes each collection's items with a single unordered bulk insert, so one bad document
+     * doesn't stop the rest from being saved.
+     */
+    private void insertGrouped(List<PendingItem> pending, Set<PendingItem> failed) {
+        for (Map.Entry<Class<?>, List<PendingItem>> group : groupByCollection(pending).entrySet()) {
+            List<PendingItem> items = group.getValue();
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, group.getKey())
+                        .insert(items.stream().map(PendingItem::entity).toList())
+                        .execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    PendingItem item = items.get(error.getIndex());
+                    log.error("Error saving item {}: {}", item.response().getTitle(), error.getMessage());
+                    item.reason = "Could not be saved";
+                    failed.add(item);
                 }
+            } catch (Exception e) {
+                log.error("Error saving {} items", group.getKey().getSimpleName(), e);
+                items.forEach(item -> item.reason = "Could not be saved");
+                failed.addAll(items);
             }
+        }
+    }
+    
+    private void insertAllOrNothing(List<PendingItem> pending, MongoTransactionManager txManager, Set<PendingItem> failed) {
+        try {
+            new TransactionTemplate(txManager).executeWithoutResult(status ->
+                    groupByCollection(pending).forEach((type, items) ->
+                            mongoTemplate.insert(items.stream().map(PendingItem::entity).toList(), type)));
+        } catch (Exception e) {
+            log.error("Error saving schedule items, transaction rolled back", e);
+            pending.forEach(item -> item.reason = "Not saved because another item failed");
+            failed.addAll(pending);
+        }
+    }
+    
+    private static Map<Class<?>, List<PendingItem>> groupByCollection(List<PendingItem> pending) {
+        Map<Class<?>, List<PendingItem>> groups = new LinkedHashMap<>();
+        for (PendingItem item : pending) {
+            groups.computeIfAbsent(item.entity().getClass(), type -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+    
+    /**
+     * Streams items to the caller as the model generates them. Each array element is saved as
+     * soon as it is complete and sent as an "item" event; a final "done" event carries the totals.
+     */
+    public Flux<ServerSentEvent<Object>> streamScheduleText(String text, AuthenticatedUser user) {
+        return coalescer.coalesceStream(user.getId(), text, () -> stream(text, user), this::replayEvents);
+    }
+    
+    private Flux<ServerSentEvent<Object>> stream(String text, AuthenticatedUser user) {
+        return Flux.defer(() -> {
+            List<ScheduleResponse.ParsedItem> savedItems = new ArrayList<>();
+            List<ScheduleResponse.FailedItem> failedItems = new ArrayList<>();
+            List<Throwable> errors = new CopyOnWriteArrayList<>();
+            List<String> chunks = ScheduleTextChunker.split(text, chunkThresholdChars, chunkChars);
             
-            if (responseItems.isEmpty()) {
-                return ScheduleResponse.builder()
-                        .message("I understood your message but couldn't save any items. Please try again.")
-                        .items(Collections.emptyList())
-                        .build();
-            }
+            Flux<ExtractedItem> items = chunks.size() == 1
+                    ? streamItems(text)
+                    : Flux.fromIterable(chunks)
+                            .flatMap(chunk -> streamItems(chunk)
+                                    .onErrorResume(e -> {
+                                        log.warn("Failed to stream chunk of schedule text", e);
+                                        errors.add(e);
+                                        return Flux.empty();
+                                    }), chunkParallelism)
+                            .distinct(AIScheduleService::dedupeKey);
             
-            return ScheduleResponse.builder()
-                    .message("Successfully processed your schedule!")
-                    .items(responseItems)
-                    .choresCreated(choresCreated)
-                    .eventsCreated(eventsCreated)
-                    .medicationsCreated(medicationsCreated)
-                    .groceriesCreated(groceriesCreated)
-                    .build();
-                    
+            return items
+                    .mapNotNull(item -> saveItem(item, user, failedItems))
+                    .doOnNext(savedItems::add)
+                    .map(item -> ServerSentEvent.<Object>builder(item).event("item").build())
+                    .concatWith(Mono.defer(() -> savedItems.isEmpty() && !errors.isEmpty()
+                            ? Mono.error(errors.get(0))
+                            : Mono.just(doneEvent(summarize(savedItems, failedItems)))))
+                    .onErrorResume(e -> {
+                        log.error("Error streaming schedule text", e);
+                        return Flux.just(doneEvent(ScheduleResponse.builder()
+                                .message(errorMessage(e))
+                                .items(savedItems)
+                                .failedItems(failedItems)
+                                .build()));
+                    });
+        });
+    }
+    
+    private Flux<ExtractedItem> streamItems(String text) {
+        return localItems(text)
+                .flatMapMany(Flux::fromIterable)
+                .switchIfEmpty(Flux.defer(() -> streamParsedItems(text)));
+    }
+    
+    private Flux<ExtractedItem> streamParsedItems(String text) {
+        JsonArrayStreamSplitter splitter = new JsonArrayStreamSplitter();
+        List<ExtractedItem> parsedItems = new ArrayList<>();
+        
+        return callOpenAIStream(text)
+                .concatMapIterable(splitter::feed)
+                .publishOn(Schedulers.boundedElastic())
+                .mapNotNull(itemReader::read)
+                .doOnNext(parsedItems::add)
+                .doOnComplete(() -> parseCache.put(text, parsedItems));
+    }
+    
+    private static String errorMessage(Throwable e) {
+        if (e instanceof MissingApiKeyException) {
+            return "AI feature requires OpenAI API key. Please configure OPENAI_API_KEY in your environment.";
+        }
+        if (e instanceof OpenAIGuard.UnavailableException || e instanceof TimeoutException) {
+            return BUSY_MESSAGE;
+        }
+        return "Sorry, I couldn't understand that. Please try again with clearer details.";
+    }
+    
+    private Flux<ServerSentEvent<Object>> replayEvents(ScheduleResponse response) {
+        return Flux.fromIterable(response.getItems())
+                .map(item -> ServerSentEvent.<Object>builder(item).event("item").build())
+                .concatWith(Mono.just(doneEvent(response)));
+    }
+    
+    private ServerSentEvent<Object> doneEvent(ScheduleResponse response) {
+        return ServerSentEvent.<Object>builder(response).event("done").build();
+    }
+    
+    private ScheduleResponse.ParsedItem saveItem(
+            ExtractedItem item, AuthenticatedUser user, List<ScheduleResponse.FailedItem> failedItems) {
+        PendingItem pending;
+        try {
+            pending = prepareItem(item, user);
         } catch (Exception e) {
-            log.error("Error processing schedule text", e);
-            return ScheduleResponse.builder()
-                    .message("Sorry, I couldn't understand that. Please try again with clearer details.")
-                    .items(Collections.emptyList())
-                    .build();
+            log.warn("Skipping item {}: {}", item, e.getMessage());
+            failedItems.add(failedItem(item, e));
+            return null;
+        }
+        
+        try {
+            mongoTemplate.insert(pending.entity());
+            householdVersions.bump(user.getHouseholdId(), HouseholdVersionService.Resource.of(pending.entity().getClass()));
+            if (pending.entity() instanceof Chore) {
+                choreService.invalidateStats(user.getHouseholdId());
+            }
+            return pending.response();
+        } catch (Exception e) {
+            log.error("Error saving item: {}", item, e);
+            pending.reason = "Could not be saved";
+            failedItems.add(pending.failure());
+            return null;
         }
     }
     
-    private String callOpenAI(String userText) {
-        WebClient client = WebClient.builder()
-                .baseUrl(openaiApiUrl)
-                .defaultHeader("Authorization", "Bearer " + openaiApiKey)
-                .defaultHeader("Content-Type", "application/json")
-                .build();
+    private PendingItem prepareItem(ExtractedItem item, AuthenticatedUser user) {
+        if (item.type() == null || item.type().isBlank()) {
+            throw new IllegalArgumentException("Missing type");
+        }
+        if (item.title() == null || item.title().isBlank()) {
+            throw new IllegalArgumentException("Missing title");
+        }
         
-        String systemPrompt = String.format(SYSTEM_PROMPT, LocalDateTime.now().format(DateTimeFormatter.ISO_DATE));
+        ScheduleResponse.ParsedItem responseItem = ScheduleResponse.ParsedItem.builder()
+                .type(item.type())
+                .title(item.title())
+                .description(item.description())
+                .dateTime(item.dateTime())
+                .build();
         
-        Map<String, Object> requestBody = Map.of(
-                "model", "gpt-4o-mini",
-                "messages", List.of(
-                        Map.of("role", "system", "content", systemPrompt),
-                        Map.of("role", "user", "content", userText)
-                ),
-                "temperature", 0.3,
-                "max_tokens", 2000
-        );
+        Object entity = switch (item.type().toLowerCase()) {
+            case "chore" -> {
+                Chore chore = createChore(item, user);
+                responseItem.setPoints(chore.getPoints());
+                yield chore;
+            }
+            case "event" -> createEvent(item, user);
+            case "medication" -> createMedication(item, user);
+            case "grocery" -> createGroceryItem(item, user);
+            default -> throw new IllegalArgumentException("Unknown item type: " + item.type());
+        };
+        return new PendingItem(responseItem, entity);
+    }
+    
+    private static ScheduleResponse.FailedItem failedItem(ExtractedItem item, Exception e) {
+        return ScheduleResponse.FailedItem.builder()
+                .type(item.type())
+                .title(item.title())
+                .reason(e instanceof IllegalArgumentException ? e.getMessage() : "Invalid item")
+                .build();
+    }
+    
+    private ScheduleResponse summarize(
+            List<ScheduleResponse.ParsedItem> responseItems, List<ScheduleResponse.FailedItem> failedItems) {
+        if (responseItems.isEmpty()) {
+            return ScheduleResponse.builder()
+                    .message("I understood your message but couldn't save any items. Please try again.")
+                    .items(Collections.emptyList())
+                    .failedItems(failedItems)
+                    .build();
+        }
         
-        String response = client.post()
+        return ScheduleResponse.builder()
+                .message(failedItems.isEmpty()
+                        ? "Successfully processed your schedule!"
+                        : "Processed your schedule, but " + failedItems.size() + " item(s) could not be saved.")
+                .items(responseItems)
+                .failedItems(failedItems)
+                .choresCreated(countOfType(responseItems, "chore"))
+                .eventsCreated(countOfType(responseItems, "event"))
+                .medicationsCreated(countOfType(responseItems, "medication"))
+                .groceriesCreated(countOfType(responseItems, "grocery"))
+                .build();
+    }
+    
+    private static int countOfType(List<ScheduleResponse.ParsedItem> items, String type) {
+        return (int) items.stream().filter(item -> type.equalsIgnoreCase(item.getType())).count();
+    }
+    
+    private Mono<String> callOpenAI(String userText) {
+        if (openaiApiKey == null || openaiApiKey.isBlank()) {
+            return Mono.error(new MissingApiKeyException());
+        }
+        return openAIGuard.protect(openAIWebClient.post()
                 .uri("/chat/completions")
                 .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(requestBody)
+                .bodyValue(buildRequestBody(userText, false))
                 .retrieve()
                 .onStatus(HttpStatusCode::isError, clientResponse -> 
                     clientResponse.bodyToMono(String.class)
@@ -211,12 +466,60 @@ public class AIScheduleService {
                         })
                 )
                 .bodyToMono(String.class)
-                .block();
-        
-        if (response == null) {
-            throw new RuntimeException("Empty response from OpenAI");
+                .switchIfEmpty(Mono.error(new RuntimeException("Empty response from OpenAI"))))
+                .map(this::extractContent);
+    }
+    
+    private Flux<String> callOpenAIStream(String userText) {
+        if (openaiApiKey == null || openaiApiKey.isBlank()) {
+            return Flux.error(new MissingApiKeyException());
         }
+        return openAIGuard.protect(openAIWebClient.post()
+                .uri("/chat/completions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(buildRequestBody(userText, true))
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, clientResponse ->
+                    clientResponse.bodyToMono(String.class)
+                        .flatMap(body -> {
+                            log.error("OpenAI API error: {} - {}", clientResponse.statusCode(), body);
+                            return Mono.error(new RuntimeException("OpenAI API error: " + clientResponse.statusCode()));
+                        })
+                )
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {})
+                .mapNotNull(ServerSentEvent::data)
+                // Stop at the end marker inside the guard so it counts as a completed call
+                .takeWhile(data -> !"[DONE]".equals(data)))
+                .mapNotNull(this::extractDelta);
+    }
+    
+    private Map<String, Object> buildRequestBody(String userText, boolean stream) {
+        String systemPrompt = String.format(SYSTEM_PROMPT, LocalDateTime.now().format(DateTimeFormatter.ISO_DATE));
         
+        return Map.of(
+                "model", "gpt-4o-mini",
+                "messages", List.of(
+                        Map.of("role", "system", "content", systemPrompt),
+                        Map.of("role", "user", "content", userText)
+                ),
+                "temperature", 0.3,
+                "max_tokens", 2000,
+                "stream", stream
+        );
+    }
+    
+    private String extractDelta(String chunk) {
+        try {
+            JsonNode content = objectMapper.readTree(chunk).path("choices").path(0).path("delta").path("content");
+            return content.isTextual() ? content.asText() : null;
+        } catch (JsonProcessingException e) {
+            log.warn("Skipping unreadable stream chunk: {}", chunk);
+            return null;
+        }
+    }
+    
+    private String extractContent(String response) {
         try {
             JsonNode root = objectMapper.readTree(response);
             JsonNode choices = root.path("choices");
@@ -229,39 +532,14 @@ public class AIScheduleService {
         }
     }
     
-    private List<Map<String, Object>> parseAIResponse(String response) {
-        if (response == null || response.isBlank()) {
-            return Collections.emptyList();
-        }
-        
-        try {
-            String cleaned = response.trim();
-            if (cleaned.startsWith("```json")) {
-                cleaned = cleaned.substring(7);
-            }
-            if (cleaned.startsWith("```")) {
-                cleaned = cleaned.substring(3);
-            }
-            if (cleaned.endsWith("```")) {
-                cleaned = cleaned.substring(0, cleaned.length() - 3);
-            }
-            
-            return objectMapper.readValue(cleaned.trim(), new TypeReference<>() {});
-        } catch (JsonProcessingException e) {
-            log.error("Failed to parse AI response: {}", response, e);
-            return Collections.emptyList();
-        }
-    }
-    
-    private Chore createChore(Map<String, Object> item, User user) {
-        LocalDateTime dueDate = parseDateTime((String) item.get("dateTime"));
-        Integer points = item.get("points") != null ? ((Number) item.get("points")).intValue() : 10;
+    private Chore createChore(ExtractedItem item, AuthenticatedUser user) {
+        LocalDateTime dueDate = parseDateTime(item.dateTime());
         
         return Chore.builder()
-                .title((String) item.get("title"))
-                .description((String) item.get("description"))
+                .title(item.title())
+                .description(item.description())
                 .dueDate(dueDate != null ? dueDate : LocalDateTime.now().plusDays(1))
-                .points(points)
+                .points(item.points() != null ? item.points() : 10)
                 .completed(false)
                 .householdId(user.getHouseholdId())
                 .createdBy(user.getId())
@@ -270,9 +548,9 @@ public class AIScheduleService {
                 .build();
     }
     
-    private CalendarEvent createEvent(Map<String, Object> item, User user) {
-        LocalDateTime startTime = parseDateTime((String) item.get("dateTime"));
-        LocalDateTime endTime = parseDateTime((String) item.get("endDateTime"));
+    private CalendarEvent createEvent(ExtractedItem item, AuthenticatedUser user) {
+        LocalDateTime startTime = parseDateTime(item.dateTime());
+        LocalDateTime endTime = parseDateTime(item.endDateTime());
         
         if (startTime == null) {
             startTime = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0);
@@ -282,8 +560,8 @@ public class AIScheduleService {
         }
         
         return CalendarEvent.builder()
-                .title((String) item.get("title"))
-                .description((String) item.get("description"))
+                .title(item.title())
+                .description(item.description())
                 .startTime(startTime)
                 .endTime(endTime)
                 .type(CalendarEvent.EventType.OTHER)
@@ -295,14 +573,13 @@ public class AIScheduleService {
                 .build();
     }
     
-    private Medication createMedication(Map<String, Object> item, User user) {
-        @SuppressWarnings("unchecked")
-        List<String> times = (List<String>) item.getOrDefault("times", Collections.emptyList());
+    private Medication createMedication(ExtractedItem item, AuthenticatedUser user) {
+        List<String> times = item.times() != null ? item.times() : Collections.emptyList();
         
         return Medication.builder()
-                .name((String) item.get("title"))
-                .dosage((String) item.getOrDefault("dosage", "As prescribed"))
-                .instructions((String) item.get("description"))
+                .name(item.title())
+                .dosage(item.dosage() != null ? item.dosage() : "As prescribed")
+                .instructions(item.description())
                 .morning(times.contains("morning"))
                 .afternoon(times.contains("afternoon"))
                 .evening(times.contains("evening"))
@@ -313,17 +590,18 @@ public class AIScheduleService {
                 .build();
     }
     
-    private GroceryItem createGroceryItem(Map<String, Object> item, User user) {
-        String categoryStr = (String) item.getOrDefault("category", "OTHER");
+    private GroceryItem createGroceryItem(ExtractedItem item, AuthenticatedUser user) {
         GroceryItem.Category category;
         try {
-            category = GroceryItem.Category.valueOf(categoryStr.toUpperCase());
+            category = item.category() != null
+                    ? GroceryItem.Category.valueOf(item.category().toUpperCase())
+                    : GroceryItem.Category.OTHER;
         } catch (IllegalArgumentException e) {
             category = GroceryItem.Category.OTHER;
         }
         
         return GroceryItem.builder()
-                .name((String) item.get("title"))
+                .name(item.title())
                 .category(category)
                 .neededByDate(LocalDate.now().plusDays(7))
                 .checked(false)
@@ -339,14 +617,45 @@ public class AIScheduleService {
             return null;
         }
         try {
-            return LocalDateTime.parse(dateTimeStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            return LocalDateTime.parse(dateTimeStr, ITEM_DATE_TIME);
         } catch (DateTimeParseException e) {
-            try {
-                return LocalDateTime.parse(dateTimeStr);
-            } catch (DateTimeParseException e2) {
-                log.warn("Could not parse datetime: {}", dateTimeStr);
-                return null;
-            }
+            log.warn("Could not parse datetime: {}", dateTimeStr);
+            return null;
+        }
+    }
+    
+    /** An item that has been validated and mapped to its entity but not yet written. */
+    private static final class PendingItem {
+        private final ScheduleResponse.ParsedItem response;
+        private final Object entity;
+        private String reason;
+        
+        PendingItem(ScheduleResponse.ParsedItem response, Object entity) {
+            this.response = response;
+            this.entity = entity;
+        }
+        
+        ScheduleResponse.ParsedItem response() {
+            return response;
+        }
+        
+        Object entity() {
+            return entity;
+        }
+        
+        ScheduleResponse.FailedItem failure() {
+            return ScheduleResponse.FailedItem.builder()
+                    .type(response.getType())
+                    .title(response.getTitle())
+                    .reason(reason)
+                    .build();
+        }
+    }
+    
+    /** Raised when an input needs the model but no OPENAI_API_KEY is configured. */
+    private static final class MissingApiKeyException extends IllegalStateException {
+        MissingApiKeyException() {
+            super("OPENAI_API_KEY is not configured");
         }
     }
 }
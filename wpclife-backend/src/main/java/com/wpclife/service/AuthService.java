@@ -7,95 +7,173 @@ import com.wpclife.model.Household;
 import com.wpclife.model.User;
 import com.wpclife.repository.HouseholdRepository;
 import com.wpclife.repository.UserRepository;
+import com.wpclife.security.AuthenticatedUser;
 import com.wpclife.security.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class AuthService {
     
     private final UserRepository userRepository;
+    private final UserCacheService userCacheService;
     private final HouseholdRepository householdRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
+    private final MeterRegistry meterRegistry;
     
-    public AuthResponse register(RegisterRequest request) {
+    public CompletableFuture<AuthResponse> register(RegisterRequest request) {
+        Household invitedHousehold = request.getInviteCode() != null && !request.getInviteCode().isEmpty()
+                ? householdRepository.findByInviteCode(request.getInviteCode())
+                        .orElseThrow(() -> new RuntimeException("Invalid invite code"))
+                : null;
+        
+        // Checked before hashing so repeated sign-ups for a taken email never hold a hashing
+        // slot; the unique email index settles any registration that races past it
         if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Email already registered");
+            throw emailTaken();
         }
         
-        String householdId;
-        
-        if (request.getInviteCode() != null && !request.getInviteCode().isEmpty()) {
-            Household household = householdRepository.findByInviteCode(request.getInviteCode())
-                    .orElseThrow(() -> new RuntimeException("Invalid invite code"));
-            householdId = household.getId();
-            household.getMemberIds().add(request.getEmail());
-            householdRepository.save(household);
-        } else {
-            Household household = Household.builder()
-                    .name(request.getHouseholdName() != null ? request.getHouseholdName() : request.getName() + "'s Family")
-                    .inviteCode(UUID.randomUUID().toString().substring(0, 8).toUpperCase())
-                    .memberIds(new ArrayList<>())
-                    .createdAt(LocalDateTime.now())
-                    .updatedAt(LocalDateTime.now())
-                    .build();
-            household = householdRepository.save(household);
-            householdId = household.getId();
-        }
+        return passwordHashingService.encode(request.getPassword())
+                .thenApply(encodedPassword -> createUser(request, invitedHousehold, encodedPassword));
+    }
+    
+    private AuthResponse createUser(RegisterRequest request, Household invitedHousehold, String encodedPassword) {
+        // A new household is written first so the user never points at a missing one; it is
+        // removed again if the user insert fails
+        Household createdHousehold = invitedHousehold == null
+                ? householdRepository.save(Household.builder()
+                        .name(request.getHouseholdName() != null ? request.getHouseholdName() : request.getName() + "'s Family")
+                        .inviteCode(UUID.randomUUID().toString().substring(0, 8).toUpperCase())
+                        .memberIds(new ArrayList<>())
+                        .createdAt(LocalDateTime.now())
+                        .updatedAt(LocalDateTime.now())
+                        .build())
+                : null;
         
         User user = User.builder()
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(encodedPassword)
                 .name(request.getName())
                 .role(request.getRole())
-                .householdId(householdId)
+                .householdId(invitedHousehold != null ? invitedHousehold.getId() : createdHousehold.getId())
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
         
-        user = userRepository.save(user);
+        try {
+            user = userCacheService.save(user);
+        } catch (RuntimeException e) {
+            if (createdHousehold != null) {
+                householdRepository.deleteById(createdHousehold.getId());
+            }
+            throw e instanceof DuplicateKeyException ? emailTaken() : e;
+        }
         
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
+        if (invitedHousehold != null) {
+            invitedHousehold.getMemberIds().add(request.getEmail());
+            householdRepository.save(invitedHousehold);
+        }
+        
+        UserDetails userDetails = AuthenticatedUser.from(user);
         String accessToken = jwtService.generateToken(userDetails);
         String refreshToken = jwtService.generateRefreshToken(userDetails);
         
         return buildAuthResponse(user, accessToken, refreshToken);
     }
     
-    public AuthResponse login(AuthRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
-        
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public CompletableFuture<AuthResponse> login(AuthRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Optional<User> account = userCacheService.findByEmail(request.getEmail());
         
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-        String accessToken = jwtService.generateToken(userDetails);
-        String refreshToken = jwtService.generateRefreshToken(userDetails);
+        CompletableFuture<Boolean> verified;
+        try {
+            verified = passwordHashingService.matches(request.getPassword(), account.map(User::getPassword).orElse(null));
+        } catch (ResponseStatusException e) {
+            sample.stop(loginTimer("rejected"));
+            throw e;
+        }
         
-        return buildAuthResponse(user, accessToken, refreshToken);
+        return verified
+                .thenApply(matches -> {
+                    if (!matches) {
+                        throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid email or password");
+                    }
+                    User user = account.get();
+                    if (passwordHashingService.needsRehash(user.getPassword())) {
+                        upgradePasswordHash(user, request.getPassword());
+                    }
+                    
+                    UserDetails userDetails = AuthenticatedUser.from(user);
+                    String accessToken = jwtService.generateToken(userDetails);
+                    String refreshToken = jwtService.generateRefreshToken(userDetails);
+                    
+                    return buildAuthResponse(user, accessToken, refreshToken);
+                })
+                .whenComplete((response, error) -> sample.stop(loginTimer(loginOutcome(error))));
+    }
+    
+    private void upgradePasswordHash(User user, String rawPassword) {
+        try {
+            passwordHashingService.encode(rawPassword)
+                    .thenAccept(encodedPassword -> {
+                        user.setPassword(encodedPassword);
+                        user.setUpdatedAt(LocalDateTime.now());
+                        userCacheService.save(user);
+                    })
+                    .exceptionally(e -> {
+                        log.warn("Could not upgrade password hash for user {}", user.getId(), e);
+                        return null;
+                    });
+        } catch (ResponseStatusException e) {
+            // Pool is saturated; the hash will be upgraded on a later login
+        }
+    }
+    
+    private static ResponseStatusException emailTaken() {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Email already registered");
+    }
+    
+    private Timer loginTimer(String outcome) {
+        return Timer.builder("auth.login")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+    
+    private static String loginOutcome(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause == null) {
+            return "success";
+        }
+        if (cause instanceof ResponseStatusException e && e.getStatusCode() == HttpStatus.UNAUTHORIZED) {
+            return "failure";
+        }
+        return "error";
     }
     
     public AuthResponse refreshToken(String refreshToken) {
         String email = jwtService.extractUsername(refreshToken);
-        User user = userRepository.findByEmail(email)
+        User user = userCacheService.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
+        UserDetails userDetails = AuthenticatedUser.from(user);
         
         if (!jwtService.isTokenValid(refreshToken, userDetails)) {
             throw new RuntimeException("Invalid refresh token");
@@ -0,0 +1,130 @@
+package com.wpclife.service;
+
+import com.wpclife.dto.DeletionResult;
+import com.wpclife.model.GroceryItem;
+import com.wpclife.model.Medication;
+import com.wpclife.model.MedicationLog;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Deletes that remove whole sets of documents with deleteMany instead of loading them first. The
+ * primary delete happens in the request; dependent documents are counted up front and cleaned up in
+ * the background, in batches, so a long history doesn't hold the request open or lock the
+ * collection in one large operation.
+ */
+@Service
+@Slf4j
+public class CascadeDeletionService {
+    
+    private final MongoTemplate mongoTemplate;
+    private final HouseholdVersionService householdVersions;
+    private final SyncService syncService;
+    private final int batchSize;
+    
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    
+    public CascadeDeletionService(
+            MongoTemplate mongoTemplate,
+            HouseholdVersionService householdVersions,
+            SyncService syncService,
+            @Value("${cleanup.batch-size:1000}") int batchSize
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.householdVersions = householdVersions;
+        this.syncService = syncService;
+        this.batchSize = batchSize;
+    }
+    
+    public DeletionResult clearCheckedGroceries(String householdId) {
+        Query checked = Query.query(Criteria.where("householdId").is(householdId).and("checked").is(true));
+        checked.fields().include("_id");
+        List<String> ids = mongoTemplate.find(checked, GroceryItem.class).stream().map(GroceryItem::getId).toList();
+        if (ids.isEmpty()) {
+            return DeletionResult.builder().deleted(0).cleanup(Map.of()).build();
+        }
+        
+        // Still checked is part of the delete, so an item unchecked since the read above stays
+        Criteria stillChecked = Criteria.where("_id").in(ids).and("householdId").is(householdId).and("checked").is(true);
+        long deleted = mongoTemplate.remove(Query.query(stillChecked), GroceryItem.class).getDeletedCount();
+        if (deleted > 0) {
+            // Tombstones only for what is actually gone now
+            List<String> removed = ids;
+            if (deleted < ids.size()) {
+                Query remaining = Query.query(Criteria.where("_id").in(ids));
+                remaining.fields().include("_id");
+                Set<String> kept = mongoTemplate.find(remaining, GroceryItem.class).stream()
+                        .map(GroceryItem::getId)
+                        .collect(Collectors.toSet());
+                removed = ids.stream().filter(id -> !kept.contains(id)).toList();
+            }
+            syncService.recordDeletions(GroceryItem.class, householdId, removed);
+            householdVersions.bump(householdId, HouseholdVersionService.Resource.GROCERIES);
+        }
+        return DeletionResult.builder().deleted(deleted).cleanup(Map.of()).build();
+    }
+    
+    public DeletionResult deleteMedication(String id, String householdId) {
+        Medication medication = syncService.delete(Medication.class, id, householdId);
+        if (medication != null) {
+            householdVersions.bump(householdId, HouseholdVersionService.Resource.MEDICATIONS);
+        }
+        
+        // Also runs when the medication is already gone, to pick up logs orphaned earlier
+        Criteria logs = Criteria.where("medicationId").is(id).and("householdId").is(householdId);
+        long logCount = mongoTemplate.count(Query.query(logs), MedicationLog.class);
+        if (logCount > 0) {
+            executor.execute(() -> deleteInBatches(MedicationLog.class, logs));
+        }
+        return DeletionResult.builder()
+                .deleted(medication == null ? 0 : 1)
+                .cleanup(Map.of("medicationLogs", logCount))
+                .build();
+    }
+    
+    private void deleteInBatches(Class<?> type, Criteria criteria) {
+        String collection = mongoTemplate.getCollectionName(type);
+        long deleted = 0;
+        try {
+            while (true) {
+                Query batch = Query.query(criteria).limit(batchSize);
+                batch.fields().include("_id");
+                List<Object> ids = mongoTemplate.find(batch, Document.class, collection).stream()
+                        .map(document -> document.get("_id"))
+                        .toList();
+                if (ids.isEmpty()) {
+                    break;
+                }
+                Criteria batchIds = Criteria.where("_id").in(ids);
+                if (SyncService.isSynced(type)) {
+                    syncService.recordDeletions(type, batchIds);
+                }
+                deleted += mongoTemplate.remove(Query.query(batchIds), collection).getDeletedCount();
+                if (ids.size() < batchSize) {
+                    break;
+                }
+            }
+            log.info("Deleted {} documents from {}", deleted, collection);
+        } catch (Exception e) {
+            log.error("Batched delete from {} stopped after {} documents", collection, deleted, e);
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,300 @@
+package com.wpclife.service;
+
+import com.wpclife.cache.BoundedTtlCache;
+import com.wpclife.dto.ChoreStats;
+import com.wpclife.model.Chore;
+import com.wpclife.model.ChoreLeaderboard;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Chore state changes that affect the household leaderboard. Each transition is a single
+ * conditional update, so a chore's points are added or removed exactly once no matter how many
+ * requests race on it.
+ */
+@Service
+@Slf4j
+public class ChoreService {
+    
+    private static final int REBUILD_ATTEMPTS = 3;
+    
+    private final MongoTemplate mongoTemplate;
+    private final VersionedUpdates versionedUpdates;
+    private final HouseholdVersionService householdVersions;
+    private final SyncService syncService;
+    private final ObjectProvider<MongoTransactionManager> transactionManager;
+    private final BoundedTtlCache<String, ChoreStats> statsCache;
+    
+    public ChoreService(
+            MongoTemplate mongoTemplate,
+            VersionedUpdates versionedUpdates,
+            HouseholdVersionService householdVersions,
+            SyncService syncService,
+            ObjectProvider<MongoTransactionManager> transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${cache.chore-stats.max-size:10000}") int statsCacheSize,
+            @Value("${cache.chore-stats.ttl-seconds:300}") long statsTtlSeconds
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.versionedUpdates = versionedUpdates;
+        this.householdVersions = householdVersions;
+        this.syncService = syncService;
+        this.transactionManager = transactionManager;
+        this.statsCache = new BoundedTtlCache<>(statsCacheSize, statsTtlSeconds * 1000);
+        statsCache.bindTo(meterRegistry, "chores.stats");
+    }
+    
+    public Chore complete(String id, String householdId, Long expectedVersion) {
+        LocalDateTime now = LocalDateTime.now();
+        Chore chore = atomically(() -> {
+            Chore completed = versionedUpdates.update(Chore.class, id, householdId, Criteria.where("completed").is(false),
+                    new Update().set("completed", true).set("completedAt", now).set("updatedAt", now),
+                    expectedVersion, "Chore not found");
+            if (completed != null) {
+                adjustPoints(completed, completed.getPoints());
+            }
+            return completed;
+        });
+        if (chore == null) {
+            // Already completed; nothing to award
+            return mongoTemplate.findById(id, Chore.class);
+        }
+        changed(chore.getHouseholdId());
+        return chore;
+    }
+    
+    public Chore uncomplete(String id, String householdId, Long expectedVersion) {
+        Chore chore = atomically(() -> {
+            Chore reopened = versionedUpdates.update(Chore.class, id, householdId, Criteria.where("completed").is(true),
+                    new Update().set("completed", false).unset("completedAt").set("updatedAt", LocalDateTime.now()),
+                    expectedVersion, "Chore not found");
+            if (reopened != null) {
+                adjustPoints(reopened, -reopened.getPoints());
+            }
+            return reopened;
+        });
+        if (chore == null) {
+            return mongoTemplate.findById(id, Chore.class);
+        }
+        changed(chore.getHouseholdId());
+        return chore;
+    }
+    
+    public void delete(String id, String householdId) {
+        Chore removed = atomically(() -> {
+            Chore chore = syncService.delete(Chore.class, id, householdId);
+            if (chore != null && chore.isCompleted()) {
+                adjustPoints(chore, -chore.getPoints());
+            }
+            return chore;
+        });
+        if (removed == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Chore not found");
+        }
+        changed(removed.getHouseholdId());
+    }
+    
+    /**
+     * Point totals by member, as one document read. A household whose chores were completed before
+     * totals were kept shows only later points until a guardian rebuilds it.
+     */
+    public Map<String, Integer> leaderboard(String householdId) {
+        ChoreLeaderboard leaderboard = mongoTemplate.findById(householdId, ChoreLeaderboard.class);
+        return leaderboard == null || leaderboard.getPoints() == null ? Map.of() : leaderboard.getPoints();
+    }
+    
+    /**
+     * Recounts a household's totals from its completed chores, for repair. The recount is only
+     * written if no increment landed since it started, and is retried otherwise, so it never
+     * overwrites points awarded while it ran.
+     */
+    public ChoreLeaderboard rebuildLeaderboard(String householdId) {
+        for (int attempt = 1; attempt <= REBUILD_ATTEMPTS; attempt++) {
+            ChoreLeaderboard current = mongoTemplate.findById(householdId, ChoreLeaderboard.class);
+            Map<String, Integer> totals = countPoints(householdId);
+            LocalDateTime now = LocalDateTime.now();
+            
+            Query unchanged = Query.query(Criteria.where("_id").is(householdId));
+            Update recount = new Update();
+            if (current == null) {
+                // Only creates the document; if an increment created it first, this matches and does nothing
+                recount.setOnInsert("points", totals).setOnInsert("revision", 0L)
+                        .setOnInsert("rebuiltAt", now).setOnInsert("updatedAt", now);
+                if (mongoTemplate.upsert(unchanged, recount, ChoreLeaderboard.class).getUpsertedId() == null) {
+                    continue;
+                }
+            } else {
+                // Documents from before revisions were kept have none, which reads as 0
+                unchanged.addCriteria(current.getRevision() == 0
+                        ? Criteria.where("revision").in(0, null)
+                        : Criteria.where("revision").is(current.getRevision()));
+                recount.set("points", totals).set("rebuiltAt", now).set("updatedAt", now);
+                if (mongoTemplate.updateFirst(unchanged, recount, ChoreLeaderboard.class).getModifiedCount() == 0) {
+                    continue;
+                }
+            }
+            log.info("Rebuilt chore leaderboard for household {} ({} members)", householdId, totals.size());
+            return mongoTemplate.findById(householdId, ChoreLeaderboard.class);
+        }
+        throw new ResponseStatusException(HttpStatus.CONFLICT, "Chores are being updated; try the rebuild again");
+    }
+    
+    private Map<String, Integer> countPoints(String householdId) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("householdId").is(householdId).and("completed").is(true)),
+                Aggregation.group("assignedToId").sum("points").as("points")
+        );
+        Map<String, Integer> totals = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Chore.class, Document.class)) {
+            Object memberId = row.get("_id");
+            if (memberId != null) {
+                totals.put(memberId.toString(), ((Number) row.get("points")).intValue());
+            }
+        }
+        return totals;
+    }
+    
+    private void adjustPoints(Chore chore, int delta) {
+        if (chore.getAssignedToId() == null || chore.getHouseholdId() == null || delta == 0) {
+            return;
+        }
+        mongoTemplate.upsert(
+                Query.query(Criteria.where("_id").is(chore.getHouseholdId())),
+                new Update().inc("points." + chore.getAssignedToId(), delta).inc("revision", 1)
+                        .set("updatedAt", LocalDateTime.now()),
+                ChoreLeaderboard.class);
+    }
+    
+    /**
+     * Runs a chore transition and its leaderboard change in one transaction when a transaction
+     * manager is configured (AI_TRANSACTIONAL_WRITES, which needs a replica set). Without one they
+     * are two writes, and a failure between them leaves the totals for a rebuild to correct.
+     */
+    private Chore atomically(Supplier<Chore> transition) {
+        MongoTransactionManager txManager = transactionManager.getIfAvailable();
+        if (txManager == null) {
+            return transition.get();
+        }
+        return new TransactionTemplate(txManager).execute(status -> transition.get());
+    }
+    
+    private void changed(String householdId) {
+        invalidateStats(householdId);
+        householdVersions.bump(householdId, HouseholdVersionService.Resource.CHORES);
+    }
+    
+    /**
+     * Points and completions per member since the start of the window, plus how many of the chores
+     * due in that window were done. Both are computed by Mongo, so only one row per member is read
+     * however long the household's history is.
+     */
+    public ChoreStats stats(String householdId, ChoreStats.Window window) {
+        LocalDateTime from = windowStart(window);
+        return statsCache.get(statsKey(householdId, window, from), key -> computeStats(householdId, window, from));
+    }
+    
+    /**
+     * Drops cached stats for a household, e.g. after a chore was created or changed state.
+     */
+    public void invalidateStats(String householdId) {
+        for (ChoreStats.Window window : ChoreStats.Window.values()) {
+            statsCache.invalidate(statsKey(householdId, window, windowStart(window)));
+        }
+    }
+    
+    private ChoreStats computeStats(String householdId, ChoreStats.Window window, LocalDateTime from) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, ChoreStats.MemberStats> members = new HashMap<>();
+        
+        Criteria completed = Criteria.where("householdId").is(householdId).and("completed").is(true);
+        if (from != null) {
+            completed = completed.and("completedAt").gte(from);
+        }
+        Aggregation completions = Aggregation.newAggregation(
+                Aggregation.match(completed),
+                Aggregation.group("assignedToId").sum("points").as("points").count().as("completed")
+        );
+        for (Document row : mongoTemplate.aggregate(completions, Chore.class, Document.class)) {
+            ChoreStats.MemberStats member = member(members, row.get("_id"));
+            if (member != null) {
+                member.setPoints(row.get("points", Number.class).intValue());
+                member.setCompleted(row.get("completed", Number.class).intValue());
+            }
+        }
+        
+        Criteria due = Criteria.where("householdId").is(householdId).and("dueDate").lte(now);
+        if (from != null) {
+            due = Criteria.where("householdId").is(householdId).and("dueDate").gte(from).lte(now);
+        }
+        Aggregation dueChores = Aggregation.newAggregation(
+                Aggregation.match(due),
+                Aggregation.group("assignedToId")
+                        .count().as("due")
+                        .sum(ConditionalOperators.when(Criteria.where("completed").is(true)).then(1).otherwise(0))
+                        .as("dueCompleted")
+        );
+        for (Document row : mongoTemplate.aggregate(dueChores, Chore.class, Document.class)) {
+            ChoreStats.MemberStats member = member(members, row.get("_id"));
+            if (member != null) {
+                member.setDue(row.get("due", Number.class).intValue());
+                member.setDueCompleted(row.get("dueCompleted", Number.class).intValue());
+                member.setCompletionRate(member.getDue() == 0 ? null : (double) member.getDueCompleted() / member.getDue());
+            }
+        }
+        
+        List<ChoreStats.MemberStats> ranked = new ArrayList<>(members.values());
+        ranked.sort(Comparator.comparingInt(ChoreStats.MemberStats::getPoints).reversed());
+        return ChoreStats.builder()
+                .window(window)
+                .from(from)
+                .members(ranked)
+                .build();
+    }
+    
+    private static ChoreStats.MemberStats member(Map<String, ChoreStats.MemberStats> members, Object memberId) {
+        if (memberId == null) {
+            return null;
+        }
+        return members.computeIfAbsent(memberId.toString(),
+                id -> ChoreStats.MemberStats.builder().memberId(id).build());
+    }
+    
+    private static LocalDateTime windowStart(ChoreStats.Window window) {
+        LocalDate today = LocalDate.now();
+        return switch (window) {
+            case WEEK -> today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+            case MONTH -> today.withDayOfMonth(1).atStartOfDay();
+            case ALL -> null;
+        };
+    }
+    
+    // The window start is part of the key, so a new week or month never hits last period's entry
+    private static String statsKey(String householdId, ChoreStats.Window window, LocalDateTime from) {
+        return householdId + ":" + window + ":" + from;
+    }
+}
@@ -0,0 +1,136 @@
+package com.wpclife.service;
+
+import com.wpclife.dto.DashboardResponse;
+import com.wpclife.model.CalendarEvent;
+import com.wpclife.model.Chore;
+import com.wpclife.model.GroceryItem;
+import com.wpclife.model.Medication;
+import com.wpclife.model.MedicationLog;
+import com.wpclife.model.User;
+import com.wpclife.repository.CalendarEventRepository;
+import com.wpclife.repository.ChoreRepository;
+import com.wpclife.repository.GroceryItemRepository;
+import com.wpclife.repository.MedicationLogRepository;
+import com.wpclife.repository.MedicationRepository;
+import com.wpclife.security.AuthenticatedUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Everything the home screen shows, loaded in one request. Sections are fetched concurrently on
+ * virtual threads and share one time budget; a section that fails or runs past it is left out and
+ * named in {@code unavailable} rather than holding up the others.
+ */
+@Service
+@Slf4j
+public class DashboardService {
+    
+    private final UserCacheService userCacheService;
+    private final FieldProjection fieldProjection;
+    private final ChoreRepository choreRepository;
+    private final GroceryItemRepository groceryRepository;
+    private final MedicationRepository medicationRepository;
+    private final MedicationLogRepository medicationLogRepository;
+    private final CalendarEventRepository eventRepository;
+    private final MeterRegistry meterRegistry;
+    private final long sectionTimeoutMs;
+    private final int upcomingDays;
+    
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    
+    public DashboardService(
+            UserCacheService userCacheService,
+            FieldProjection fieldProjection,
+            ChoreRepository choreRepository,
+            GroceryItemRepository groceryRepository,
+            MedicationRepository medicationRepository,
+            MedicationLogRepository medicationLogRepository,
+            CalendarEventRepository eventRepository,
+            MeterRegistry meterRegistry,
+            @Value("${dashboard.section-timeout-ms:1500}") long sectionTimeoutMs,
+            @Value("${dashboard.upcoming-days:7}") int upcomingDays
+    ) {
+        this.userCacheService = userCacheService;
+        this.fieldProjection = fieldProjection;
+        this.choreRepository = choreRepository;
+        this.groceryRepository = groceryRepository;
+        this.medicationRepository = medicationRepository;
+        this.medicationLogRepository = medicationLogRepository;
+        this.eventRepository = eventRepository;
+        this.meterRegistry = meterRegistry;
+        this.sectionTimeoutMs = sectionTimeoutMs;
+        this.upcomingDays = upcomingDays;
+    }
+    
+    public DashboardResponse load(AuthenticatedUser currentUser) {
+        String householdId = currentUser.getHouseholdId();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        
+        Future<User> user = executor.submit(() -> userCacheService.findById(currentUser.getId())
+                .map(found -> {
+                    found.setPassword(null);
+                    return found;
+                })
+                .orElse(null));
+        Future<List<?>> members = executor.submit(() -> fieldProjection.find(
+                User.class, Query.query(Criteria.where("householdId").is(householdId)), null));
+        Future<List<Chore>> pendingChores = executor.submit(() -> choreRepository.findByHouseholdIdAndCompleted(householdId, false));
+        Future<List<GroceryItem>> pendingGroceries = executor.submit(() -> groceryRepository.findByHouseholdIdAndChecked(householdId, false));
+        Future<List<Medication>> medications = executor.submit(() -> medicationRepository.findByHouseholdId(householdId));
+        Future<List<MedicationLog>> todayLogs = executor.submit(() -> medicationLogRepository.findByHouseholdIdAndScheduledTimeBetween(
+                householdId, today, today.plusDays(1)));
+        Future<List<CalendarEvent>> upcomingEvents = executor.submit(() -> eventRepository.findByHouseholdIdAndStartTimeBetween(
+                householdId, now, now.plusDays(upcomingDays)));
+        
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sectionTimeoutMs);
+        List<String> unavailable = new ArrayList<>();
+        return DashboardResponse.builder()
+                .user(await("user", user, deadline, unavailable))
+                .members(await("members", members, deadline, unavailable))
+                .pendingChores(await("pendingChores", pendingChores, deadline, unavailable))
+                .pendingGroceries(await("pendingGroceries", pendingGroceries, deadline, unavailable))
+                .medications(await("medications", medications, deadline, unavailable))
+                .todayMedicationLogs(await("todayMedicationLogs", todayLogs, deadline, unavailable))
+                .upcomingEvents(await("upcomingEvents", upcomingEvents, deadline, unavailable))
+                .unavailable(unavailable)
+                .build();
+    }
+    
+    private <T> T await(String section, Future<T> future, long deadline, List<String> unavailable) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Dashboard section {} exceeded {} ms", section, sectionTimeoutMs);
+        } catch (ExecutionException e) {
+            log.warn("Dashboard section {} failed", section, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        unavailable.add(section);
+        meterRegistry.counter("dashboard.section.unavailable", "section", section).increment();
+        return null;
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
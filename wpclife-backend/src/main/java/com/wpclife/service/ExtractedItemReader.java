@@ -0,0 +1,78 @@
+package com.wpclife.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.wpclife.dto.ExtractedItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the model's JSON array into {@link ExtractedItem}s with a streaming parser. Text before
+ * the array (Markdown fences, prose) is skipped, an element that doesn't fit the item shape is
+ * dropped on its own, and if the array is cut off the items read so far are kept.
+ */
+@Component
+@Slf4j
+class ExtractedItemReader {
+    
+    private final ObjectMapper objectMapper;
+    private final ObjectReader itemReader;
+    
+    ExtractedItemReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.itemReader = objectMapper.readerFor(ExtractedItem.class);
+    }
+    
+    List<ExtractedItem> readAll(String content) {
+        List<ExtractedItem> items = new ArrayList<>();
+        int start = content == null ? -1 : content.indexOf('[');
+        if (start < 0) {
+            return items;
+        }
+        
+        try (JsonParser parser = objectMapper.createParser(content.substring(start))) {
+            parser.nextToken();
+            JsonStreamContext array = parser.getParsingContext();
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                // Bound straight from the token stream, without building a tree per element
+                try {
+                    items.add(itemReader.readValue(parser));
+                } catch (DatabindException e) {
+                    log.warn("Skipping malformed item: {}", e.getOriginalMessage());
+                    // Move past the rest of the element so the next one starts cleanly
+                    while (parser.getParsingContext() != array && parser.nextToken() != null) {
+                        // skip
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("AI response was cut off or invalid after {} items", items.size());
+        }
+        return items;
+    }
+    
+    /**
+     * Reads a single array element, as produced by {@link JsonArrayStreamSplitter}.
+     */
+    ExtractedItem read(String element) {
+        try {
+            return itemReader.readValue(element);
+        } catch (IOException e) {
+            log.warn("Skipping malformed item: {}", element);
+            return null;
+        }
+    }
+}
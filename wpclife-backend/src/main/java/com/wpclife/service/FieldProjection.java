@@ -0,0 +1,111 @@
+package com.wpclife.service;
+
+import com.wpclife.model.User;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.mapping.PersistentProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns a {@code fields=title,completed} request parameter into a Mongo projection, so only the
+ * selected fields are read and only those are written to the response. Sensitive fields are
+ * excluded at query time whether or not a selection is given.
+ */
+@Component
+public class FieldProjection {
+    
+    private static final Map<Class<?>, Set<String>> SENSITIVE_FIELDS = Map.of(
+            User.class, Set.of("password")
+    );
+    
+    private final MongoTemplate mongoTemplate;
+    private final Map<Class<?>, Set<String>> selectableFields = new ConcurrentHashMap<>();
+    
+    public FieldProjection(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+    
+    /**
+     * Parses a comma-separated selection. Returns null when no selection was given, meaning all
+     * non-sensitive fields. The id is always included.
+     */
+    public Set<String> parse(Class<?> type, String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> allowed = selectableFields(type);
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field: " + name);
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+    
+    public void apply(Query query, Class<?> type, Set<String> selected) {
+        if (selected != null) {
+            query.fields().include(selected.toArray(String[]::new));
+        } else {
+            Set<String> sensitive = SENSITIVE_FIELDS.getOrDefault(type, Set.of());
+            if (!sensitive.isEmpty()) {
+                query.fields().exclude(sensitive.toArray(String[]::new));
+            }
+        }
+    }
+    
+    /**
+     * Copies just the selected properties, so unselected fields are left out of the JSON
+     * instead of being written as nulls.
+     */
+    public List<?> select(List<?> entities, Set<String> selected) {
+        if (selected == null) {
+            return entities;
+        }
+        List<Map<String, Object>> rows = new ArrayList<>(entities.size());
+        for (Object entity : entities) {
+            BeanWrapper wrapper = new BeanWrapperImpl(entity);
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : selected) {
+                row.put(field, wrapper.getPropertyValue(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+    
+    public List<?> find(Class<?> type, Query query, String fields) {
+        Set<String> selected = parse(type, fields);
+        apply(query, type, selected);
+        return select(mongoTemplate.find(query, type), selected);
+    }
+    
+    private Set<String> selectableFields(Class<?> type) {
+        return selectableFields.computeIfAbsent(type, key -> {
+            Set<String> names = new LinkedHashSet<>();
+            mongoTemplate.getConverter().getMappingContext()
+                    .getRequiredPersistentEntity(key)
+                    .doWithProperties((PersistentProperty<?> property) -> names.add(property.getName()));
+            names.removeAll(SENSITIVE_FIELDS.getOrDefault(key, Set.of()));
+            return Set.copyOf(names);
+        });
+    }
+}
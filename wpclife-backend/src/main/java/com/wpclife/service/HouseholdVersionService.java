@@ -0,0 +1,150 @@
+package com.wpclife.service;
+
+import com.wpclife.model.CalendarEvent;
+import com.wpclife.model.Chore;
+import com.wpclife.model.GroceryItem;
+import com.wpclife.model.HouseholdVersions;
+import com.wpclife.model.Medication;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conditional GET for the household lists. The ETag is the list's change counter plus a digest
+ * of the household and query parameters, so a client that already has the current list gets a
+ * 304 after a single small read by id, without the list query running.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HouseholdVersionService {
+    
+    private static final int BUMP_ATTEMPTS = 3;
+    private static final long BUMP_RETRY_DELAY_MS = 50;
+    
+    private final MongoTemplate mongoTemplate;
+    
+    // Households whose last bump failed after its write; their counters may be behind the data
+    private final Set<String> unbumped = ConcurrentHashMap.newKeySet();
+    
+    public enum Resource {
+        CHORES("chores", Chore.class),
+        GROCERIES("groceries", GroceryItem.class),
+        MEDICATIONS("medications", Medication.class),
+        EVENTS("events", CalendarEvent.class);
+        
+        private final String field;
+        private final Class<?> entity;
+        
+        Resource(String field, Class<?> entity) {
+            this.field = field;
+            this.entity = entity;
+        }
+        
+        public static Resource of(Class<?> entity) {
+            return Arrays.stream(values()).filter(resource -> resource.entity == entity).findFirst().orElse(null);
+        }
+    }
+    
+    /**
+     * Call after the write has completed, never before, so a reader can't pair the new version
+     * with the old data.
+     */
+    public void bump(String householdId, Resource... resources) {
+        bump(householdId, Arrays.asList(resources));
+    }
+    
+    public void bump(String householdId, Collection<Resource> resources) {
+        List<Resource> changed = resources.stream().filter(Objects::nonNull).distinct().toList();
+        if (householdId == null || changed.isEmpty()) {
+            return;
+        }
+        Update update = new Update();
+        changed.forEach(resource -> update.inc(resource.field, 1));
+        for (int attempt = 1; ; attempt++) {
+            try {
+                mongoTemplate.upsert(Query.query(Criteria.where("_id").is(householdId)), update, HouseholdVersions.class);
+                unbumped.remove(householdId);
+                return;
+            } catch (DataAccessException e) {
+                if (attempt == BUMP_ATTEMPTS || !pause(attempt)) {
+                    // The write itself has happened, so the request still succeeds; until a later
+                    // bump goes through, this household's lists are served without an ETag
+                    log.error("Could not bump {} versions for household {}", changed, householdId, e);
+                    unbumped.add(householdId);
+                    return;
+                }
+                log.warn("Retrying {} version bump for household {}: {}", changed, householdId, e.getMessage());
+            }
+        }
+    }
+    
+    private static boolean pause(int attempt) {
+        try {
+            Thread.sleep(BUMP_RETRY_DELAY_MS * attempt);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    /**
+     * Sets the ETag for this list and returns true when the client's If-None-Match already matches
+     * it, in which case the caller should return null and let the 304 go out.
+     */
+    public boolean notModified(WebRequest request, String householdId, Resource resource) {
+        if (unbumped.contains(householdId)) {
+            return false;
+        }
+        Query query = Query.query(Criteria.where("_id").is(householdId));
+        query.fields().include(resource.field);
+        HouseholdVersions versions = mongoTemplate.findOne(query, HouseholdVersions.class);
+        long version = versions == null ? 0 : switch (resource) {
+            case CHORES -> versions.getChores();
+            case GROCERIES -> versions.getGroceries();
+            case MEDICATIONS -> versions.getMedications();
+            case EVENTS -> versions.getEvents();
+        };
+        
+        // Replaces the default no-store, which would keep clients from caching the list at all
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        }
+        return request.checkNotModified("\"" + resource.field + "-" + version + "-" + variant(householdId, request) + "\"");
+    }
+    
+    // Different households, pages and field selections share a version number but not a body
+    private static String variant(String householdId, WebRequest request) {
+        Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+        StringBuilder key = new StringBuilder(householdId);
+        parameters.forEach((name, values) -> key.append('&').append(name).append('=').append(String.join(",", values)));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.wpclife.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a JSON array that arrives in arbitrary text fragments into the source text of its
+ * top-level object elements, emitting each element as soon as its closing brace arrives.
+ * Anything before the opening bracket (Markdown fences, stray prose) is ignored.
+ */
+class JsonArrayStreamSplitter {
+    
+    private final StringBuilder element = new StringBuilder();
+    private boolean inArray;
+    private boolean finished;
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    
+    List<String> feed(String fragment) {
+        List<String> completed = new ArrayList<>();
+        for (int i = 0; i < fragment.length() && !finished; i++) {
+            char c = fragment.charAt(i);
+            
+            if (!inArray) {
+                inArray = c == '[';
+                continue;
+            }
+            
+            if (depth > 0) {
+                element.append(c);
+            }
+            
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            
+            switch (c) {
+                case '"' -> inString = true;
+                case '{', '[' -> {
+                    if (depth == 0) {
+                        element.setLength(0);
+                        element.append(c);
+                    }
+                    depth++;
+                }
+                case '}', ']' -> {
+                    if (depth == 0) {
+                        // Closing bracket of the outer array
+                        finished = true;
+                    } else if (--depth == 0) {
+                        completed.add(element.toString());
+                        element.setLength(0);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return completed;
+    }
+}
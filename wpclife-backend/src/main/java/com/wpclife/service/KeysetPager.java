@@ -0,0 +1,148 @@
+package com.wpclife.service;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Pages through a collection newest first using the document id as the key, so each page is an
+ * index range scan no matter how deep the client has scrolled. The body stays a plain JSON array;
+ * when more results exist the opaque cursor for the next page is sent in {@value #NEXT_CURSOR_HEADER}.
+ * Paging starts once a request carries a limit or cursor; without either the whole list is returned.
+ */
+@Component
+public class KeysetPager {
+    
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String CURSOR_PREFIX = "v1:";
+    
+    private final MongoTemplate mongoTemplate;
+    private final FieldProjection fieldProjection;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    
+    public KeysetPager(
+            MongoTemplate mongoTemplate,
+            FieldProjection fieldProjection,
+            @Value("${pagination.default-page-size:100}") int defaultPageSize,
+            @Value("${pagination.max-page-size:500}") int maxPageSize
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.fieldProjection = fieldProjection;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+    
+    public record Page<T>(List<T> items, String nextCursor) {
+        
+        public ResponseEntity<List<?>> toResponse() {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (nextCursor != null) {
+                response.header(NEXT_CURSOR_HEADER, nextCursor);
+            }
+            return response.<List<?>>body(items);
+        }
+    }
+    
+    public <T> Page<T> page(Class<T> type, Criteria criteria, String cursor, Integer limit) {
+        return fetch(type, criteria, cursor, limit, null);
+    }
+    
+    /**
+     * Like {@link #page(Class, Criteria, String, Integer)}, but reads and returns only the
+     * comma-separated {@code fields} when given.
+     */
+    public Page<?> page(Class<?> type, Criteria criteria, String cursor, Integer limit, String fields) {
+        Set<String> selected = fieldProjection.parse(type, fields);
+        Page<?> page = fetch(type, criteria, cursor, limit, selected);
+        return new Page<>(fieldProjection.select(page.items(), selected), page.nextCursor());
+    }
+    
+    /**
+     * Returns every match in the given order, reading only {@code fields} when given. For queries
+     * that are already bounded, such as a date range, where the client expects that order rather
+     * than newest first.
+     */
+    public Page<?> list(Class<?> type, Criteria criteria, Sort sort, String fields) {
+        Set<String> selected = fieldProjection.parse(type, fields);
+        Query query = new Query(criteria).with(sort);
+        fieldProjection.apply(query, type, selected);
+        return new Page<>(fieldProjection.select(mongoTemplate.find(query, type), selected), null);
+    }
+    
+    private <T> Page<T> fetch(Class<T> type, Criteria criteria, String cursor, Integer limit, Set<String> selected) {
+        boolean paged = limit != null || (cursor != null && !cursor.isBlank());
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.DESC, "_id"));
+        if (paged) {
+            query.limit(pageSize + 1);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            query.addCriteria(Criteria.where("_id").lt(decode(cursor)));
+        }
+        fieldProjection.apply(query, type, selected);
+        
+        // Clients that send neither limit nor cursor predate paging and get the whole list
+        if (!paged) {
+            return new Page<>(mongoTemplate.find(query, type), null);
+        }
+        
+        // Stream so at most one page plus one look-ahead document is ever decoded
+        List<T> items = new ArrayList<>(pageSize);
+        boolean hasMore = false;
+        try (Stream<T> results = mongoTemplate.stream(query, type)) {
+            Iterator<T> iterator = results.iterator();
+            while (iterator.hasNext()) {
+                T item = iterator.next();
+                if (items.size() == pageSize) {
+                    hasMore = true;
+                    break;
+                }
+                items.add(item);
+            }
+        }
+        
+        String nextCursor = hasMore ? encode(idOf(items.get(items.size() - 1))) : null;
+        return new Page<>(items, nextCursor);
+    }
+    
+    private Object idOf(Object entity) {
+        return mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(entity.getClass())
+                .getIdentifierAccessor(entity)
+                .getRequiredIdentifier();
+    }
+    
+    private static String encode(Object id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static ObjectId decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (value.startsWith(CURSOR_PREFIX) && ObjectId.isValid(value.substring(CURSOR_PREFIX.length()))) {
+                return new ObjectId(value.substring(CURSOR_PREFIX.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // Fall through to the bad request below
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+}
@@ -0,0 +1,113 @@
+package com.wpclife.service;
+
+import com.wpclife.dto.LogMedicationRequest;
+import com.wpclife.model.Medication;
+import com.wpclife.model.MedicationLog;
+import com.wpclife.security.AuthenticatedUser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+
+/**
+ * Inventory changes are single field-level updates on the medication document, so concurrent
+ * doses and refills never overwrite each other.
+ */
+@Service
+@RequiredArgsConstructor
+public class MedicationService {
+    
+    private final MongoTemplate mongoTemplate;
+    private final HouseholdVersionService householdVersions;
+    
+    /**
+     * Records a dose. A TAKEN dose takes one unit from inventory in the same step that checks
+     * there is one left; if the log can't be written the unit is put back.
+     */
+    public MedicationLog logDose(AuthenticatedUser user, LogMedicationRequest request) {
+        boolean decremented = false;
+        Medication medication = null;
+        if (request.getStatus() == MedicationLog.Status.TAKEN) {
+            Query available = Query.query(owned(request.getMedicationId(), user.getHouseholdId()).and("inventory").gt(0));
+            available.fields().include("inventory");
+            medication = mongoTemplate.findAndModify(
+                    available,
+                    new Update().inc("inventory", -1).set("updatedAt", LocalDateTime.now()),
+                    FindAndModifyOptions.options().returnNew(true),
+                    Medication.class);
+            decremented = medication != null;
+        }
+        if (medication == null) {
+            // Not a decrement, or nothing left to take; the dose is still logged
+            medication = findInventory(request.getMedicationId(), user.getHouseholdId());
+        }
+        
+        MedicationLog entry = MedicationLog.builder()
+                .medicationId(request.getMedicationId())
+                .userId(user.getId())
+                .status(request.getStatus())
+                .scheduledTime(request.getScheduledTime())
+                .takenTime(request.getTakenTime() != null ? request.getTakenTime() : LocalDateTime.now())
+                .notes(request.getNotes())
+                .householdId(user.getHouseholdId())
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+        
+        try {
+            entry = mongoTemplate.insert(entry);
+        } catch (RuntimeException e) {
+            if (decremented) {
+                mongoTemplate.updateFirst(
+                        Query.query(owned(request.getMedicationId(), user.getHouseholdId())),
+                        new Update().inc("inventory", 1).set("updatedAt", LocalDateTime.now()),
+                        Medication.class);
+            }
+            throw e;
+        }
+        if (decremented) {
+            householdVersions.bump(user.getHouseholdId(), HouseholdVersionService.Resource.MEDICATIONS);
+        }
+        entry.setRemainingInventory(medication.getInventory());
+        return entry;
+    }
+    
+    public Medication setInventory(String id, String householdId, int quantity) {
+        Medication medication = mongoTemplate.findAndModify(
+                Query.query(owned(id, householdId)),
+                new Update().set("inventory", quantity).set("updatedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true),
+                Medication.class);
+        if (medication == null) {
+            throw notFound();
+        }
+        householdVersions.bump(medication.getHouseholdId(), HouseholdVersionService.Resource.MEDICATIONS);
+        return medication;
+    }
+    
+    private Medication findInventory(String id, String householdId) {
+        Query query = Query.query(owned(id, householdId));
+        query.fields().include("inventory");
+        Medication medication = mongoTemplate.findOne(query, Medication.class);
+        if (medication == null) {
+            throw notFound();
+        }
+        return medication;
+    }
+    
+    // Another household's medication is reported as missing rather than forbidden
+    private static Criteria owned(String id, String householdId) {
+        return Criteria.where("_id").is(id).and("householdId").is(householdId);
+    }
+    
+    private static ResponseStatusException notFound() {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Medication not found");
+    }
+}
@@ -0,0 +1,262 @@
+package com.wpclife.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Protects the app from a slow or failing OpenAI endpoint: a bulkhead caps concurrent calls, every
+ * call gets a deadline, and a circuit breaker stops calling out for a while once too many of the
+ * recent calls failed or were slow. Rejected calls fail immediately with {@link UnavailableException}.
+ */
+@Component
+@Slf4j
+public class OpenAIGuard {
+    
+    enum State { CLOSED, OPEN, HALF_OPEN }
+    
+    public static class UnavailableException extends RuntimeException {
+        public UnavailableException(String message) {
+            super(message);
+        }
+    }
+    
+    private final Semaphore bulkhead;
+    private final Duration deadline;
+    private final Duration streamDeadline;
+    private final long slowCallNanos;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    
+    // Outcomes of the most recent calls while closed, as a ring buffer
+    private final boolean[] failedCalls;
+    private final boolean[] slowCalls;
+    private int recorded;
+    private int next;
+    private int failedCount;
+    private int slowCount;
+    
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSucceeded;
+    
+    private final MeterRegistry meterRegistry;
+    private final Timer latency;
+    private final Timer firstChunkLatency;
+    
+    public OpenAIGuard(
+            MeterRegistry meterRegistry,
+            @Value("${ai.openai.bulkhead.max-concurrent:20}") int maxConcurrent,
+            @Value("${ai.openai.deadline-seconds:30}") long deadlineSeconds,
+            @Value("${ai.openai.stream-deadline-seconds:90}") long streamDeadlineSeconds,
+            @Value("${ai.openai.breaker.window-size:20}") int windowSize,
+            @Value("${ai.openai.breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${ai.openai.breaker.failure-rate-threshold:50}") int failureRateThreshold,
+            @Value("${ai.openai.breaker.slow-call-threshold-seconds:10}") long slowCallSeconds,
+            @Value("${ai.openai.breaker.slow-call-rate-threshold:80}") int slowCallRateThreshold,
+            @Value("${ai.openai.breaker.open-seconds:30}") long openSeconds,
+            @Value("${ai.openai.breaker.half-open-calls:3}") int halfOpenCalls
+    ) {
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.deadline = Duration.ofSeconds(deadlineSeconds);
+        this.streamDeadline = Duration.ofSeconds(streamDeadlineSeconds);
+        this.failedCalls = new boolean[windowSize];
+        this.slowCalls = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = TimeUnit.SECONDS.toNanos(slowCallSeconds);
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openNanos = TimeUnit.SECONDS.toNanos(openSeconds);
+        this.halfOpenCalls = halfOpenCalls;
+        
+        this.meterRegistry = meterRegistry;
+        this.latency = Timer.builder("ai.openai.latency")
+                .tag("mode", "complete")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.firstChunkLatency = Timer.builder("ai.openai.latency")
+                .tag("mode", "first-chunk")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("ai.openai.circuit.state", this, guard -> guard.state().ordinal())
+                .description("0 = closed, 1 = open, 2 = half open")
+                .register(meterRegistry);
+        Gauge.builder("ai.openai.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .register(meterRegistry);
+    }
+    
+    public <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> {
+            acquire();
+            long start = System.nanoTime();
+            AtomicBoolean done = new AtomicBoolean();
+            return call
+                    .timeout(deadline)
+                    .doOnSuccess(value -> {
+                        long elapsed = System.nanoTime() - start;
+                        latency.record(elapsed, TimeUnit.NANOSECONDS);
+                        finish(done, false, elapsed > slowCallNanos, "success");
+                    })
+                    .doOnError(e -> finish(done, true, false, outcome(e)))
+                    .doFinally(signal -> release(done, signal));
+        });
+    }
+    
+    /**
+     * Streams can legitimately run for a while, so they get a longer overall deadline (plus the
+     * normal deadline between chunks) and are judged slow by how long the first chunk takes.
+     */
+    public <T> Flux<T> protect(Flux<T> call) {
+        return Flux.defer(() -> {
+            acquire();
+            long start = System.nanoTime();
+            AtomicBoolean done = new AtomicBoolean();
+            boolean[] slow = {false};
+            boolean[] first = {true};
+            boolean[] expired = {false};
+            return call
+                    .timeout(deadline)
+                    .takeUntilOther(Mono.delay(streamDeadline).doOnNext(tick -> expired[0] = true))
+                    .concatWith(Mono.defer(() -> expired[0]
+                            ? Mono.error(new TimeoutException("OpenAI stream deadline exceeded"))
+                            : Mono.empty()))
+                    .doOnNext(value -> {
+                        if (first[0]) {
+                            first[0] = false;
+                            long elapsed = System.nanoTime() - start;
+                            firstChunkLatency.record(elapsed, TimeUnit.NANOSECONDS);
+                            slow[0] = elapsed > slowCallNanos;
+                        }
+                    })
+                    .doOnComplete(() -> finish(done, false, slow[0], "success"))
+                    .doOnError(e -> finish(done, true, false, outcome(e)))
+                    .doFinally(signal -> release(done, signal));
+        });
+    }
+    
+    synchronized State state() {
+        return state;
+    }
+    
+    private void acquire() {
+        if (!tryAcquirePermission()) {
+            count("short-circuited");
+            throw new UnavailableException("OpenAI circuit breaker is open");
+        }
+        if (!bulkhead.tryAcquire()) {
+            onCancelled();
+            count("rejected");
+            throw new UnavailableException("Too many concurrent OpenAI calls");
+        }
+    }
+    
+    private void finish(AtomicBoolean done, boolean failed, boolean slow, String outcome) {
+        if (done.compareAndSet(false, true)) {
+            onResult(failed, slow);
+            count(outcome);
+        }
+    }
+    
+    private void release(AtomicBoolean done, SignalType signal) {
+        bulkhead.release();
+        // A cancelled call says nothing about the endpoint's health, but it must free its probe slot
+        if (signal == SignalType.CANCEL && done.compareAndSet(false, true)) {
+            onCancelled();
+            count("cancelled");
+        }
+    }
+    
+    private synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            transitionTo(State.HALF_OPEN);
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (halfOpenInFlight >= halfOpenCalls) {
+                    yield false;
+                }
+                halfOpenInFlight++;
+                yield true;
+            }
+        };
+    }
+    
+    private synchronized void onCancelled() {
+        if (state == State.HALF_OPEN && halfOpenInFlight > 0) {
+            halfOpenInFlight--;
+        }
+    }
+    
+    private synchronized void onResult(boolean failed, boolean slow) {
+        switch (state) {
+            case HALF_OPEN -> {
+                if (failed || slow) {
+                    transitionTo(State.OPEN);
+                } else if (++halfOpenSucceeded >= halfOpenCalls) {
+                    transitionTo(State.CLOSED);
+                }
+            }
+            case CLOSED -> {
+                if (recorded == failedCalls.length) {
+                    failedCount -= failedCalls[next] ? 1 : 0;
+                    slowCount -= slowCalls[next] ? 1 : 0;
+                } else {
+                    recorded++;
+                }
+                failedCalls[next] = failed;
+                slowCalls[next] = slow;
+                failedCount += failed ? 1 : 0;
+                slowCount += slow ? 1 : 0;
+                next = (next + 1) % failedCalls.length;
+                
+                if (recorded >= minimumCalls
+                        && (failedCount * 100 >= failureRateThreshold * recorded
+                        || slowCount * 100 >= slowCallRateThreshold * recorded)) {
+                    transitionTo(State.OPEN);
+                }
+            }
+            case OPEN -> {
+                // Result of a call that started before the breaker opened
+            }
+        }
+    }
+    
+    private void transitionTo(State newState) {
+        log.warn("OpenAI circuit breaker {} -> {}", state, newState);
+        state = newState;
+        openedAt = System.nanoTime();
+        halfOpenInFlight = 0;
+        halfOpenSucceeded = 0;
+        recorded = 0;
+        next = 0;
+        failedCount = 0;
+        slowCount = 0;
+    }
+    
+    private static String outcome(Throwable e) {
+        return e instanceof TimeoutException ? "timeout" : "failure";
+    }
+    
+    private void count(String outcome) {
+        Counter.builder("ai.openai.calls").tag("outcome", outcome).register(meterRegistry).increment();
+    }
+}
@@ -0,0 +1,315 @@
+package com.wpclife.service;
+
+import com.wpclife.dto.ExtractedItem;
+import com.wpclife.model.GroceryItem;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Handles the simplest schedule texts without calling the model: grocery lists, "take X every
+ * morning" and single events such as "dentist tomorrow at 3pm". It produces the same items
+ * the model would and returns null for anything it isn't sure about, so those still go to the model.
+ */
+@Component
+public class ScheduleFastPathParser {
+    
+    private static final int MAX_INPUT_LENGTH = 200;
+    private static final int MAX_GROCERY_WORDS = 4;
+    private static final int MAX_TITLE_WORDS = 8;
+    
+    private static final String DAY = "monday|tuesday|wednesday|thursday|friday|saturday|sunday";
+    private static final String WHEN = "today|tonight|tomorrow|(?:(?:on|this|next)\\s+)?(?:" + DAY + ")";
+    private static final String TIME = "\\d{1,2}(?::\\d{2})?\\s*(?:am|pm)|\\d{1,2}:\\d{2}|noon";
+    private static final String PERIOD = "morning|afternoon|evening|night";
+    
+    private static final Pattern GROCERY_LIST = Pattern.compile(
+            "^(?:(?:please\\s+)?(buy|get|pick up|grab|we need|need)\\s+|(grocery list|groceries|shopping list|shopping)\\s*:\\s*)(.+)$",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern LIST_SEPARATOR = Pattern.compile("\\s*,\\s*(?:and\\s+)?|\\s+and\\s+|\\s*&\\s*", Pattern.CASE_INSENSITIVE);
+    private static final Pattern GROCERY_NAME = Pattern.compile("[\\p{L}\\d' -]+");
+    
+    private static final Pattern MEDICATION = Pattern.compile(
+            "^(?:remember to\\s+|remind me to\\s+)?take\\s+(.+?)\\s+(?:every|each|in the)\\s+((?:" + PERIOD + ")(?:\\s*(?:,|and|&)\\s*(?:" + PERIOD + "))*)$",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern DOSAGE = Pattern.compile(
+            "\\b\\d+(?:\\.\\d+)?\\s?(?:mg|mcg|ml|g|iu|units?|pills?|tablets?|capsules?|drops?)\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern PERIOD_WORD = Pattern.compile(PERIOD, Pattern.CASE_INSENSITIVE);
+    
+    private static final Pattern EVENT_DAY_FIRST = Pattern.compile(
+            "^(.+?)\\s+(" + WHEN + ")\\s+at\\s+(" + TIME + ")$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern EVENT_TIME_FIRST = Pattern.compile(
+            "^(.+?)\\s+at\\s+(" + TIME + ")\\s+(" + WHEN + ")$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CLOCK = Pattern.compile("(\\d{1,2})(?::(\\d{2}))?\\s*(am|pm)?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DATE_WORD = Pattern.compile("on|this|next|" + WHEN, Pattern.CASE_INSENSITIVE);
+    private static final Pattern EVENT_PREFIX = Pattern.compile("^(?:remind me about|schedule|add)\\s+", Pattern.CASE_INSENSITIVE);
+    
+    // Words that suggest a list item is really a task or an appointment
+    private static final Set<String> NON_GROCERY_WORDS = Set.of(
+            "today", "tomorrow", "tonight", "at", "on", "every", "take", "call", "appointment", "pick", "clean", "pay",
+            "from", "to", "for", "with", "kids");
+    
+    private static final Pattern MEDICATION_NAME = Pattern.compile(
+            "\\b(?:vitamins?|multivitamins?|pills?|medicine|medication|meds|tablets?|capsules?|supplements?|drops|"
+                    + "inhaler|insulin|aspirin|ibuprofen|tylenol|advil|paracetamol|acetaminophen|antibiotics?|"
+                    + "antihistamines?|allergy|iron|probiotics?|fish oil|melatonin|magnesium|calcium|zinc)\\b",
+            Pattern.CASE_INSENSITIVE);
+    
+    private static final Map<String, GroceryItem.Category> CATEGORY_KEYWORDS = categoryKeywords();
+    
+    private final Counter hits;
+    private final Counter misses;
+    
+    public ScheduleFastPathParser(MeterRegistry meterRegistry) {
+        this.hits = Counter.builder("ai.schedule.fastpath").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("ai.schedule.fastpath").tag("result", "miss").register(meterRegistry);
+    }
+    
+    /**
+     * Returns the items for {@code text}, or null if it should be sent to the model.
+     */
+    public List<ExtractedItem> parse(String text) {
+        List<ExtractedItem> items = tryParse(text);
+        (items != null ? hits : misses).increment();
+        return items;
+    }
+    
+    private List<ExtractedItem> tryParse(String text) {
+        if (text == null || text.length() > MAX_INPUT_LENGTH || text.contains("\n")) {
+            return null;
+        }
+        String cleaned = text.trim().replaceAll("\\s+", " ").replaceAll("[.!]+$", "");
+        if (cleaned.isEmpty()) {
+            return null;
+        }
+        
+        List<ExtractedItem> items = parseMedication(cleaned);
+        if (items == null) {
+            items = parseEvent(cleaned);
+        }
+        if (items == null) {
+            items = parseGroceries(cleaned);
+        }
+        return items;
+    }
+    
+    private List<ExtractedItem> parseGroceries(String text) {
+        Matcher matcher = GROCERY_LIST.matcher(text);
+        boolean prefixed = matcher.matches();
+        // "groceries: ..." is explicit; "buy ..." could be anything, so it needs at least one known item
+        boolean labelled = prefixed && matcher.group(2) != null;
+        String list = prefixed ? matcher.group(3) : text;
+        boolean anyKnown = false;
+        
+        List<ExtractedItem> items = new ArrayList<>();
+        for (String name : LIST_SEPARATOR.split(list)) {
+            name = name.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!GROCERY_NAME.matcher(name).matches()) {
+                return null;
+            }
+            String[] words = name.toLowerCase(Locale.ROOT).split(" ");
+            if (words.length > MAX_GROCERY_WORDS) {
+                return null;
+            }
+            for (String word : words) {
+                if (NON_GROCERY_WORDS.contains(word)) {
+                    return null;
+                }
+            }
+            
+            GroceryItem.Category category = categorize(words);
+            // Without a "buy"/"groceries:" prefix only accept lists made entirely of known grocery words
+            if (!prefixed && category == null) {
+                return null;
+            }
+            anyKnown |= category != null;
+            
+            items.add(ExtractedItem.grocery(
+                    capitalize(name), (category != null ? category : GroceryItem.Category.OTHER).name()));
+        }
+        
+        // A single unprefixed word is as likely to be a note as a grocery list
+        if (items.isEmpty() || (!prefixed && items.size() < 2) || (!labelled && !anyKnown)) {
+            return null;
+        }
+        return items;
+    }
+    
+    private List<ExtractedItem> parseMedication(String text) {
+        Matcher matcher = MEDICATION.matcher(text);
+        if (!matcher.matches()) {
+            return null;
+        }
+        
+        String name = matcher.group(1);
+        String dosage = null;
+        Matcher dosageMatcher = DOSAGE.matcher(name);
+        if (dosageMatcher.find()) {
+            dosage = dosageMatcher.group();
+            name = (name.substring(0, dosageMatcher.start()) + name.substring(dosageMatcher.end()))
+                    .replaceAll("^\\s*(?:of\\s+)?", "");
+        }
+        name = name.replaceAll("^(?:my|the|a|an|his|her|their|your)\\s+", "").trim();
+        // "take the dog out every morning" is not a medication
+        if (name.isEmpty() || name.split(" ").length > 5 || (dosage == null && !MEDICATION_NAME.matcher(name).find())) {
+            return null;
+        }
+        
+        Set<String> times = new LinkedHashSet<>();
+        Matcher periods = PERIOD_WORD.matcher(matcher.group(2));
+        while (periods.find()) {
+            String period = periods.group().toLowerCase(Locale.ROOT);
+            times.add(period.equals("night") ? "evening" : period);
+        }
+        
+        return List.of(ExtractedItem.medication(capitalize(name), dosage, List.copyOf(times)));
+    }
+    
+    private List<ExtractedItem> parseEvent(String text) {
+        String title;
+        String when;
+        String time;
+        Matcher matcher = EVENT_DAY_FIRST.matcher(text);
+        if (matcher.matches()) {
+            title = matcher.group(1);
+            when = matcher.group(2);
+            time = matcher.group(3);
+        } else {
+            matcher = EVENT_TIME_FIRST.matcher(text);
+            if (!matcher.matches()) {
+                return null;
+            }
+            title = matcher.group(1);
+            time = matcher.group(2);
+            when = matcher.group(3);
+        }
+        
+        title = EVENT_PREFIX.matcher(title).replaceFirst("").trim();
+        // Several things in one sentence are left to the model, as is a date with no title
+        // ("next monday at 3pm" would otherwise be an event called "Next")
+        if (title.isEmpty() || DATE_WORD.matcher(title).matches() || title.contains(",") || title.toLowerCase(Locale.ROOT).contains(" and ")
+                || title.split(" ").length > MAX_TITLE_WORDS) {
+            return null;
+        }
+        
+        LocalDate date = resolveDate(when.toLowerCase(Locale.ROOT));
+        LocalTime clock = resolveTime(time.toLowerCase(Locale.ROOT));
+        if (clock == null) {
+            return null;
+        }
+        
+        return List.of(ExtractedItem.event(
+                capitalize(title), LocalDateTime.of(date, clock).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)));
+    }
+    
+    private static LocalDate resolveDate(String when) {
+        LocalDate today = LocalDate.now();
+        switch (when) {
+            case "today", "tonight" -> {
+                return today;
+            }
+            case "tomorrow" -> {
+                return today.plusDays(1);
+            }
+            default -> {
+                String[] parts = when.split(" ");
+                DayOfWeek day = DayOfWeek.valueOf(parts[parts.length - 1].toUpperCase(Locale.ROOT));
+                return parts[0].equals("next")
+                        ? today.with(TemporalAdjusters.next(day))
+                        : today.with(TemporalAdjusters.nextOrSame(day));
+            }
+        }
+    }
+    
+    private static LocalTime resolveTime(String time) {
+        if (time.equals("noon")) {
+            return LocalTime.NOON;
+        }
+        Matcher matcher = CLOCK.matcher(time);
+        if (!matcher.matches()) {
+            return null;
+        }
+        int hour = Integer.parseInt(matcher.group(1));
+        int minute = matcher.group(2) != null ? Integer.parseInt(matcher.group(2)) : 0;
+        String meridiem = matcher.group(3);
+        if (meridiem != null) {
+            if (hour < 1 || hour > 12) {
+                return null;
+            }
+            hour = hour % 12 + (meridiem.equals("pm") ? 12 : 0);
+        }
+        if (hour > 23 || minute > 59) {
+            return null;
+        }
+        return LocalTime.of(hour, minute);
+    }
+    
+    private static GroceryItem.Category categorize(String[] words) {
+        for (int i = words.length - 1; i >= 0; i--) {
+            String word = words[i];
+            GroceryItem.Category category = CATEGORY_KEYWORDS.get(word);
+            if (category == null && word.endsWith("es")) {
+                category = CATEGORY_KEYWORDS.get(word.substring(0, word.length() - 2));
+            }
+            if (category == null && word.endsWith("s")) {
+                category = CATEGORY_KEYWORDS.get(word.substring(0, word.length() - 1));
+            }
+            if (category != null) {
+                return category;
+            }
+        }
+        return null;
+    }
+    
+    private static String capitalize(String value) {
+        return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+    
+    private static Map<String, GroceryItem.Category> categoryKeywords() {
+        Map<String, GroceryItem.Category> keywords = new HashMap<>();
+        for (String word : List.of("apple", "banana", "orange", "lemon", "lime", "grape", "berry", "berries",
+                "strawberry", "blueberry", "avocado", "tomato", "potato", "onion", "garlic", "carrot",
+                "lettuce", "spinach", "kale", "broccoli", "cucumber", "pepper", "celery", "mushroom",
+                "corn", "peach", "pear", "melon", "watermelon", "cabbage", "zucchini", "herb", "cilantro",
+                "parsley", "fruit", "vegetable", "veggie", "salad")) {
+            keywords.put(word, GroceryItem.Category.PRODUCE);
+        }
+        for (String word : List.of("milk", "cheese", "butter", "yogurt", "yoghurt", "cream", "egg", "eggs",
+                "mozzarella", "cheddar", "parmesan")) {
+            keywords.put(word, GroceryItem.Category.DAIRY);
+        }
+        for (String word : List.of("chicken", "beef", "pork", "turkey", "ham", "bacon", "sausage", "steak",
+                "lamb", "fish", "salmon", "tuna", "shrimp", "meat", "mince")) {
+            keywords.put(word, GroceryItem.Category.MEAT);
+        }
+        for (String word : List.of("bread", "rice", "pasta", "flour", "sugar", "salt", "oil", "cereal",
+                "oats", "oatmeal", "beans", "lentil", "sauce", "soup", "coffee", "tea", "honey", "jam",
+                "peanut", "nut", "cracker", "cookie", "chip", "snack", "spice", "vinegar", "noodle")) {
+            keywords.put(word, GroceryItem.Category.PANTRY);
+        }
+        for (String word : List.of("soap", "detergent", "shampoo", "toothpaste", "tissue", "towel",
+                "napkin", "diaper", "battery", "sponge", "foil", "bag")) {
+            keywords.put(word, GroceryItem.Category.OTHER);
+        }
+        return Map.copyOf(keywords);
+    }
+}
@@ -0,0 +1,255 @@
+package com.wpclife.service;
+
+import com.wpclife.dto.ScheduleResponse;
+import com.wpclife.model.ScheduleJob;
+import com.wpclife.repository.ScheduleJobRepository;
+import com.wpclife.security.AuthenticatedUser;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs AI schedule requests in the background. Jobs are stored in Mongo so clients can poll
+ * or subscribe for the result after the submitting connection is gone, and pending jobs are
+ * picked up again after a restart. Running jobs are kept fresh by a heartbeat, so one whose
+ * process died stops being refreshed and is failed by the periodic sweep.
+ */
+@Service
+@Slf4j
+public class ScheduleJobService {
+    
+    private final ScheduleJobRepository jobRepository;
+    private final MongoTemplate mongoTemplate;
+    private final AIScheduleService aiScheduleService;
+    private final Semaphore permits;
+    private final long sseTimeoutMs;
+    private final long staleAfterMinutes;
+    
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+    
+    public ScheduleJobService(
+            ScheduleJobRepository jobRepository,
+            MongoTemplate mongoTemplate,
+            AIScheduleService aiScheduleService,
+            @Value("${ai.jobs.max-concurrent:16}") int maxConcurrent,
+            @Value("${ai.jobs.sse-timeout-ms:120000}") long sseTimeoutMs,
+            @Value("${ai.jobs.stale-after-minutes:2}") long staleAfterMinutes
+    ) {
+        this.jobRepository = jobRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.aiScheduleService = aiScheduleService;
+        this.permits = new Semaphore(maxConcurrent);
+        this.sseTimeoutMs = sseTimeoutMs;
+        this.staleAfterMinutes = staleAfterMinutes;
+    }
+    
+    public ScheduleJob submit(String text, AuthenticatedUser user) {
+        ScheduleJob job = ScheduleJob.builder()
+                .userId(user.getId())
+                .userEmail(user.getEmail())
+                .userRole(user.getRole())
+                .householdId(user.getHouseholdId())
+                .text(text)
+                .status(ScheduleJob.Status.PENDING)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+        
+        job = jobRepository.save(job);
+        dispatch(job.getId());
+        return job;
+    }
+    
+    public Optional<ScheduleJob> findJob(String id, AuthenticatedUser user) {
+        return jobRepository.findByIdAndUserId(id, user.getId());
+    }
+    
+    public SseEmitter subscribe(ScheduleJob job) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        if (isFinished(job)) {
+            send(emitter, job);
+            return emitter;
+        }
+        
+        subscribers.computeIfAbsent(job.getId(), id -> new CopyOnWriteArrayList<>()).add(emitter);
+        emitter.onCompletion(() -> unsubscribe(job.getId(), emitter));
+        emitter.onTimeout(() -> unsubscribe(job.getId(), emitter));
+        
+        // The job may have finished between the caller's read and the registration above
+        jobRepository.findById(job.getId()).filter(this::isFinished).ifPresent(this::publish);
+        return emitter;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeJobs() {
+        failStaleJobs();
+        List<ScheduleJob> pending = jobRepository.findByStatus(ScheduleJob.Status.PENDING);
+        if (!pending.isEmpty()) {
+            log.info("Resuming {} pending schedule jobs", pending.size());
+            pending.forEach(job -> dispatch(job.getId()));
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${ai.jobs.heartbeat-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void heartbeat() {
+        if (running.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("id").in(running).and("status").is(ScheduleJob.Status.RUNNING)),
+                Update.update("updatedAt", LocalDateTime.now()),
+                ScheduleJob.class
+        );
+    }
+    
+    /**
+     * Fails RUNNING jobs whose heartbeat has stopped, which means the process running them is gone.
+     * Items may already have been saved for an interrupted run, so they are not replayed.
+     */
+    @Scheduled(fixedDelayString = "${ai.jobs.sweep-seconds:60}", initialDelayString = "${ai.jobs.sweep-seconds:60}",
+            timeUnit = TimeUnit.SECONDS)
+    public void failStaleJobs() {
+        LocalDateTime staleBefore = LocalDateTime.now().minusMinutes(staleAfterMinutes);
+        for (ScheduleJob job : jobRepository.findByStatus(ScheduleJob.Status.RUNNING)) {
+            if (running.contains(job.getId())) {
+                continue;
+            }
+            ScheduleJob failed = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("id").is(job.getId())
+                            .and("status").is(ScheduleJob.Status.RUNNING)
+                            .orOperator(Criteria.where("updatedAt").lt(staleBefore), Criteria.where("updatedAt").is(null))),
+                    new Update()
+                            .set("status", ScheduleJob.Status.FAILED)
+                            .set("error", "Processing was interrupted, please submit your request again.")
+                            .set("completedAt", LocalDateTime.now())
+                            .set("updatedAt", LocalDateTime.now()),
+                    FindAndModifyOptions.options().returnNew(true),
+                    ScheduleJob.class
+            );
+            if (failed != null) {
+                log.warn("Schedule job {} stopped sending heartbeats, marking it failed", failed.getId());
+                publish(failed);
+            }
+        }
+    }
+    
+    private void dispatch(String jobId) {
+        executor.execute(() -> run(jobId));
+    }
+    
+    private void run(String jobId) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        
+        ScheduleJob job = null;
+        try {
+            job = claim(jobId);
+            if (job == null) {
+                return;
+            }
+            running.add(jobId);
+            
+            AuthenticatedUser user = new AuthenticatedUser(
+                    job.getUserId(), job.getUserEmail(), null, job.getHouseholdId(), job.getUserRole());
+            ScheduleResponse result = aiScheduleService.processScheduleText(job.getText(), user).block();
+            
+            job.setStatus(ScheduleJob.Status.COMPLETED);
+            job.setResult(result);
+            job.setCompletedAt(LocalDateTime.now());
+            job.setUpdatedAt(LocalDateTime.now());
+            publish(jobRepository.save(job));
+        } catch (OpenAIGuard.UnavailableException e) {
+            log.warn("Schedule job {} rejected: {}", jobId, e.getMessage());
+            fail(job, AIScheduleService.BUSY_MESSAGE);
+        } catch (Exception e) {
+            log.error("Schedule job {} failed", jobId, e);
+            if (job != null) {
+                fail(job, "Sorry, something went wrong while processing your request.");
+            }
+        } finally {
+            running.remove(jobId);
+            permits.release();
+        }
+    }
+    
+    // Atomically move PENDING -> RUNNING so a job is only ever picked up once
+    private ScheduleJob claim(String jobId) {
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(jobId).and("status").is(ScheduleJob.Status.PENDING)),
+                new Update()
+                        .set("status", ScheduleJob.Status.RUNNING)
+                        .set("updatedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true),
+                ScheduleJob.class
+        );
+    }
+    
+    private void fail(ScheduleJob job, String error) {
+        job.setStatus(ScheduleJob.Status.FAILED);
+        job.setError(error);
+        job.setCompletedAt(LocalDateTime.now());
+        job.setUpdatedAt(LocalDateTime.now());
+        publish(jobRepository.save(job));
+    }
+    
+    private void publish(ScheduleJob job) {
+        List<SseEmitter> emitters = subscribers.remove(job.getId());
+        if (emitters != null) {
+            emitters.forEach(emitter -> send(emitter, job));
+        }
+    }
+    
+    private void send(SseEmitter emitter, ScheduleJob job) {
+        try {
+            emitter.send(SseEmitter.event().name("result").data(job));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+    }
+    
+    private void unsubscribe(String jobId, SseEmitter emitter) {
+        subscribers.computeIfPresent(jobId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+    
+    private boolean isFinished(ScheduleJob job) {
+        return job.getStatus() == ScheduleJob.Status.COMPLETED || job.getStatus() == ScheduleJob.Status.FAILED;
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
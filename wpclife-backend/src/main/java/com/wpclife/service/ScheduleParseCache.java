@@ -0,0 +1,101 @@
+package com.wpclife.service;
+
+import com.wpclife.cache.BoundedTtlCache;
+import com.wpclife.dto.ExtractedItem;
+import com.wpclife.model.CachedScheduleParse;
+import com.wpclife.repository.CachedScheduleParseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Caches the items the model extracted for a given text. The key combines the normalized
+ * text with today's date because relative dates in the prompt are resolved against it.
+ * Only the parse result is cached; items are still created for each requesting user.
+ */
+@Component
+@Slf4j
+public class ScheduleParseCache {
+    
+    private final CachedScheduleParseRepository repository;
+    private final BoundedTtlCache<String, List<ExtractedItem>> entries;
+    private final Counter persistentHits;
+    private final boolean persistent;
+    
+    public ScheduleParseCache(
+            CachedScheduleParseRepository repository,
+            MeterRegistry meterRegistry,
+            @Value("${ai.cache.max-size:5000}") int maxSize,
+            @Value("${ai.cache.ttl-minutes:60}") long ttlMinutes,
+            @Value("${ai.cache.persistent:false}") boolean persistent
+    ) {
+        this.repository = repository;
+        this.entries = new BoundedTtlCache<>(maxSize, ttlMinutes * 60_000);
+        this.persistent = persistent;
+        entries.bindTo(meterRegistry, "ai.schedule.parse");
+        this.persistentHits = Counter.builder("cache.gets")
+                .tag("cache", "ai.schedule.parse.mongo").tag("result", "hit")
+                .register(meterRegistry);
+    }
+    
+    public List<ExtractedItem> get(String text) {
+        String key = key(text);
+        List<ExtractedItem> items = entries.get(key);
+        if (items == null && persistent) {
+            items = repository.findById(key).map(CachedScheduleParse::getItems).orElse(null);
+            if (items != null) {
+                persistentHits.increment();
+                entries.put(key, items);
+            }
+        }
+        return items;
+    }
+    
+    public void put(String text, List<ExtractedItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        String key = key(text);
+        entries.put(key, List.copyOf(items));
+        if (persistent) {
+            try {
+                repository.save(CachedScheduleParse.builder()
+                        .id(key)
+                        .items(items)
+                        .createdAt(LocalDateTime.now())
+                        .build());
+            } catch (Exception e) {
+                log.warn("Could not persist AI parse cache entry", e);
+            }
+        }
+    }
+    
+    static String normalize(String text) {
+        return text.trim()
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("\\s+", " ")
+                .replaceAll("[.!?]+$", "");
+    }
+    
+    private static String key(String text) {
+        String source = LocalDate.now().format(DateTimeFormatter.ISO_DATE) + '\n' + normalize(text);
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.wpclife.service;
+
+import com.wpclife.cache.BoundedTtlCache;
+import com.wpclife.dto.ScheduleResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Makes repeated submissions of the same text by the same user share one run. A request that
+ * arrives while an identical one is still in flight joins it, whether either of them streams or
+ * not, and one that arrives shortly after gets the finished response back instead of creating the
+ * items a second time.
+ */
+@Component
+public class ScheduleRequestCoalescer {
+    
+    /**
+     * One in-flight run. {@code events} is only set when the run streams; a streaming request that
+     * joins a non-streaming run gets the replayed response once it is done.
+     */
+    private record Run(Mono<ScheduleResponse> response, Flux<ServerSentEvent<Object>> events) {
+    }
+    
+    private final Map<String, Run> inFlight = new ConcurrentHashMap<>();
+    private final BoundedTtlCache<String, ScheduleResponse> recentResponses;
+    private final Counter joined;
+    
+    public ScheduleRequestCoalescer(
+            MeterRegistry meterRegistry,
+            @Value("${ai.dedupe.replay-window-seconds:30}") long replayWindowSeconds,
+            @Value("${ai.dedupe.max-size:1000}") int maxSize
+    ) {
+        this.recentResponses = new BoundedTtlCache<>(maxSize, replayWindowSeconds * 1000);
+        recentResponses.bindTo(meterRegistry, "ai.schedule.replay");
+        this.joined = Counter.builder("ai.schedule.coalesced").register(meterRegistry);
+    }
+    
+    public Mono<ScheduleResponse> coalesce(String userId, String text, Supplier<Mono<ScheduleResponse>> request) {
+        String key = key(userId, text);
+        return Mono.defer(() -> {
+            ScheduleResponse recent = recentResponses.get(key);
+            if (recent != null) {
+                return Mono.just(recent);
+            }
+            return join(key, k -> {
+                Mono<ScheduleResponse> response = request.get()
+                        .doOnNext(result -> remember(k, result))
+                        .doFinally(signal -> inFlight.remove(k))
+                        .cache();
+                return new Run(response, null);
+            }).response();
+        });
+    }
+    
+    /**
+     * Streaming variant: late joiners get every event the first request has produced so far.
+     * A replayed response is sent as its items followed by the "done" summary.
+     */
+    public Flux<ServerSentEvent<Object>> coalesceStream(
+            String userId,
+            String text,
+            Supplier<Flux<ServerSentEvent<Object>>> request,
+            Function<ScheduleResponse, Flux<ServerSentEvent<Object>>> replay
+    ) {
+        String key = key(userId, text);
+        return Flux.defer(() -> {
+            ScheduleResponse recent = recentResponses.get(key);
+            if (recent != null) {
+                return replay.apply(recent);
+            }
+            Run run = join(key, k -> {
+                Flux<ServerSentEvent<Object>> events = request.get()
+                        .doOnNext(event -> {
+                            ScheduleResponse response = doneResponse(event);
+                            if (response != null) {
+                                remember(k, response);
+                            }
+                        })
+                        .doFinally(signal -> inFlight.remove(k))
+                        .cache();
+                // The stream always ends with a "done" event carrying the whole response
+                Mono<ScheduleResponse> response = events.mapNotNull(ScheduleRequestCoalescer::doneResponse).next();
+                return new Run(response, events);
+            });
+            return run.events() != null ? run.events() : run.response().flatMapMany(replay);
+        });
+    }
+    
+    private Run join(String key, Function<String, Run> start) {
+        boolean[] started = {false};
+        Run run = inFlight.computeIfAbsent(key, k -> {
+            started[0] = true;
+            return start.apply(k);
+        });
+        if (!started[0]) {
+            joined.increment();
+        }
+        return run;
+    }
+    
+    private static ScheduleResponse doneResponse(ServerSentEvent<Object> event) {
+        return "done".equals(event.event()) && event.data() instanceof ScheduleResponse response ? response : null;
+    }
+    
+    // Only responses that actually created items are worth replaying; failures may be retried
+    private void remember(String key, ScheduleResponse response) {
+        if (response.getItems() != null && !response.getItems().isEmpty()) {
+            recentResponses.put(key, response);
+        }
+    }
+    
+    private static String key(String userId, String text) {
+        return userId + '\n' + ScheduleParseCache.normalize(text);
+    }
+}
@@ -0,0 +1,83 @@
+package com.wpclife.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a long schedule text into pieces the model can handle independently. Paragraphs and
+ * lines that start a new day ("Monday:", "Tomorrow -", "12/3") begin a new block, and blocks are
+ * packed together up to the target chunk size so short days don't each cost a separate call.
+ */
+final class ScheduleTextChunker {
+    
+    private static final Pattern PARAGRAPH_BREAK = Pattern.compile("\\n\\s*\\n");
+    private static final Pattern SENTENCE_BREAK = Pattern.compile("\\n|(?<=[.!?;])\\s+");
+    private static final Pattern DAY_HEADING = Pattern.compile(
+            "^\\s*(?:[-*•]\\s*)?(?:(?:on\\s+)?(?:mon|tues?|wed(?:nes)?|thu(?:rs)?|fri|sat(?:ur)?|sun)(?:day)?|today|tonight|tomorrow|"
+                    + "(?:this|next)\\s+(?:week(?:end)?|\\w+day)|weekend|\\d{1,2}[/.-]\\d{1,2})\\b",
+            Pattern.CASE_INSENSITIVE);
+    
+    private ScheduleTextChunker() {
+    }
+    
+    /**
+     * Returns the text as a single chunk when it is no longer than {@code thresholdChars},
+     * otherwise as chunks of roughly {@code chunkChars} each.
+     */
+    static List<String> split(String text, int thresholdChars, int chunkChars) {
+        if (text.length() <= thresholdChars) {
+            return List.of(text);
+        }
+        
+        List<String> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String block : blocks(text)) {
+            if (current.length() > 0 && current.length() + block.length() + 1 > chunkChars) {
+                chunks.add(current.toString());
+                current.setLength(0);
+            }
+            if (block.length() > chunkChars) {
+                // No paragraph or day break inside, so fall back to lines, then sentences
+                for (String line : SENTENCE_BREAK.split(block)) {
+                    if (current.length() > 0 && current.length() + line.length() + 1 > chunkChars) {
+                        chunks.add(current.toString());
+                        current.setLength(0);
+                    }
+                    appendLine(current, line);
+                }
+            } else {
+                appendLine(current, block);
+            }
+        }
+        if (!current.toString().isBlank()) {
+            chunks.add(current.toString());
+        }
+        return chunks;
+    }
+    
+    private static List<String> blocks(String text) {
+        List<String> blocks = new ArrayList<>();
+        for (String paragraph : PARAGRAPH_BREAK.split(text.strip())) {
+            StringBuilder block = new StringBuilder();
+            for (String line : paragraph.split("\\n")) {
+                if (block.length() > 0 && DAY_HEADING.matcher(line).find()) {
+                    blocks.add(block.toString());
+                    block.setLength(0);
+                }
+                appendLine(block, line);
+            }
+            if (!block.toString().isBlank()) {
+                blocks.add(block.toString());
+            }
+        }
+        return blocks;
+    }
+    
+    private static void appendLine(StringBuilder builder, String line) {
+        if (builder.length() > 0) {
+            builder.append('\n');
+        }
+        builder.append(line);
+    }
+}
@@ -0,0 +1,316 @@
+package com.wpclife.service;
+
+import com.wpclife.dto.SyncResponse;
+import com.wpclife.model.CalendarEvent;
+import com.wpclife.model.Chore;
+import com.wpclife.model.GroceryItem;
+import com.wpclife.model.Medication;
+import com.wpclife.model.MedicationLog;
+import com.wpclife.model.SyncTombstone;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Change feed for offline clients. Every synced document carries {@code updatedAt} and every delete
+ * leaves a {@link SyncTombstone}, so a client can ask for what changed after its last watermark
+ * and receive work proportional to the churn since then. Pages walk the sections in a fixed order
+ * with an (updatedAt, _id) keyset, which the (householdId, updatedAt, _id) indexes serve directly.
+ */
+@Service
+@Slf4j
+public class SyncService {
+    
+    private static final String TOKEN_PREFIX = "v1";
+    private static final String DELETED = "deleted";
+    private static final String MIGRATIONS = "migrations";
+    private static final String BACKFILL_MIGRATION = "sync-updated-at-backfill";
+    
+    private record Section<T>(String name, Class<T> type, String timeField,
+                              Function<T, LocalDateTime> time, Function<T, String> id) {
+    }
+    
+    private static final List<Section<?>> SECTIONS = List.of(
+            new Section<>("chores", Chore.class, "updatedAt", Chore::getUpdatedAt, Chore::getId),
+            new Section<>("events", CalendarEvent.class, "updatedAt", CalendarEvent::getUpdatedAt, CalendarEvent::getId),
+            new Section<>("medications", Medication.class, "updatedAt", Medication::getUpdatedAt, Medication::getId),
+            new Section<>("medicationLogs", MedicationLog.class, "updatedAt", MedicationLog::getUpdatedAt, MedicationLog::getId),
+            new Section<>("groceries", GroceryItem.class, "updatedAt", GroceryItem::getUpdatedAt, GroceryItem::getId),
+            new Section<>(DELETED, SyncTombstone.class, "deletedAt", SyncTombstone::getDeletedAt, SyncTombstone::getId)
+    );
+    
+    /**
+     * Position in a sync: changes after {@code since} up to {@code until}, resuming in section
+     * {@code section} after the document (lastAt, lastId). A watermark has no until yet.
+     */
+    private record SyncToken(LocalDateTime since, LocalDateTime until, int section, LocalDateTime lastAt, String lastId) {
+    }
+    
+    private final MongoTemplate mongoTemplate;
+    private final boolean backfillUpdatedAt;
+    private final long settleSeconds;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    
+    public SyncService(
+            MongoTemplate mongoTemplate,
+            @Value("${sync.backfill-updated-at:true}") boolean backfillUpdatedAt,
+            @Value("${sync.settle-seconds:5}") long settleSeconds,
+            @Value("${sync.default-page-size:500}") int defaultPageSize,
+            @Value("${sync.max-page-size:2000}") int maxPageSize
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.backfillUpdatedAt = backfillUpdatedAt;
+        this.settleSeconds = settleSeconds;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+    
+    public SyncResponse changes(String householdId, String since, Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        LocalDateTime now = LocalDateTime.now();
+        SyncToken token = since == null || since.isBlank()
+                ? new SyncToken(null, null, 0, null, null)
+                : decode(since);
+        if (token.since() != null && token.since().isBefore(now.minus(SyncTombstone.RETENTION))) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Sync token expired, start a full sync");
+        }
+        // Stop short of now, so a write stamped just before this read but committed after it is
+        // picked up by the next sync instead of being skipped
+        LocalDateTime until = token.until() != null
+                ? token.until()
+                : now.minusSeconds(settleSeconds).truncatedTo(ChronoUnit.MILLIS);
+        
+        Map<String, List<?>> changes = new LinkedHashMap<>();
+        List<SyncTombstone> deleted = new ArrayList<>();
+        int remaining = pageSize;
+        for (int i = token.section(); i < SECTIONS.size(); i++) {
+            Section<?> section = SECTIONS.get(i);
+            boolean resuming = i == token.section() && token.lastId() != null;
+            List<?> items = fetch(section, householdId, token.since(), until,
+                    resuming ? token.lastAt() : null, resuming ? token.lastId() : null, remaining);
+            if (section.name().equals(DELETED)) {
+                items.forEach(item -> deleted.add((SyncTombstone) item));
+            } else if (!items.isEmpty()) {
+                changes.put(section.name(), items);
+            }
+            remaining -= items.size();
+            if (remaining == 0) {
+                SyncToken next = new SyncToken(token.since(), until, i,
+                        timeOf(section, items.get(items.size() - 1)), idOf(section, items.get(items.size() - 1)));
+                return response(changes, deleted, encode(next), true);
+            }
+        }
+        
+        // Everything up to until has been delivered; it becomes the next sync's lower bound
+        return response(changes, deleted, encode(new SyncToken(until, null, 0, null, null)), false);
+    }
+    
+    /**
+     * Leaves a tombstone for one deleted document.
+     */
+    public void recordDeletion(Class<?> type, String householdId, String entityId) {
+        if (householdId == null || entityId == null) {
+            return;
+        }
+        mongoTemplate.insert(SyncTombstone.builder()
+                .householdId(householdId)
+                .type(sectionName(type))
+                .entityId(entityId)
+                .deletedAt(LocalDateTime.now())
+                .build());
+    }
+    
+    /**
+     * Leaves tombstones for documents already deleted, given by id.
+     */
+    public void recordDeletions(Class<?> type, String householdId, Collection<String> entityIds) {
+        if (householdId == null || entityIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.insertAll(entityIds.stream()
+                .map(entityId -> SyncTombstone.builder()
+                        .householdId(householdId)
+                        .type(sectionName(type))
+                        .entityId(entityId)
+                        .deletedAt(now)
+                        .build())
+                .toList());
+    }
+    
+    /**
+     * Leaves tombstones for every document matching {@code criteria}, written by the server with
+     * $merge so the documents never reach the application. Call just before deleting the same set.
+     */
+    public void recordDeletions(Class<?> type, Criteria criteria) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                context -> new Document("$project", new Document("_id", 0)
+                        .append("householdId", "$householdId")
+                        .append("type", new Document("$literal", sectionName(type)))
+                        .append("entityId", new Document("$toString", "$_id"))
+                        .append("deletedAt", "$$NOW")),
+                context -> new Document("$merge", new Document("into", mongoTemplate.getCollectionName(SyncTombstone.class))
+                        .append("whenNotMatched", "insert"))
+        );
+        mongoTemplate.aggregate(aggregation, type, Document.class);
+    }
+    
+    /**
+     * Deletes one document of {@code householdId} and records its tombstone. Returns the deleted
+     * document, or null if the household has no such document.
+     */
+    public <T> T delete(Class<T> type, String id, String householdId) {
+        T removed = mongoTemplate.findAndRemove(
+                Query.query(Criteria.where("_id").is(id).and("householdId").is(householdId)), type);
+        if (removed != null) {
+            recordDeletion(type, householdId, id);
+        }
+        return removed;
+    }
+    
+    /**
+     * Documents written before updatedAt was maintained everywhere would never show up in a sync;
+     * stamp them with their creation time. Every write since sets updatedAt, so this is a one-off
+     * migration: once every collection has been stamped it is recorded in {@value #MIGRATIONS} and
+     * later startups skip it without scanning.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillUpdatedAt() {
+        if (!backfillUpdatedAt
+                || mongoTemplate.exists(Query.query(Criteria.where("_id").is(BACKFILL_MIGRATION)), MIGRATIONS)) {
+            return;
+        }
+        Thread.ofVirtual().name("sync-backfill").start(() -> {
+            boolean complete = true;
+            for (Section<?> section : SECTIONS) {
+                if (section.type() == SyncTombstone.class) {
+                    continue;
+                }
+                try {
+                    long stamped = mongoTemplate.updateMulti(
+                            Query.query(Criteria.where("updatedAt").is(null)),
+                            AggregationUpdate.update().set("updatedAt")
+                                    .toValue(ConditionalOperators.ifNull("createdAt").then("$$NOW")),
+                            section.type()).getModifiedCount();
+                    if (stamped > 0) {
+                        log.info("Set updatedAt on {} {} documents", stamped, section.name());
+                    }
+                } catch (Exception e) {
+                    complete = false;
+                    log.warn("Could not backfill updatedAt for {}: {}", section.name(), e.getMessage());
+                }
+            }
+            if (complete) {
+                // Upsert so two instances finishing together don't collide on the marker
+                mongoTemplate.upsert(Query.query(Criteria.where("_id").is(BACKFILL_MIGRATION)),
+                        new Update().setOnInsert("completedAt", LocalDateTime.now()), MIGRATIONS);
+            }
+        });
+    }
+    
+    private <T> List<T> fetch(Section<T> section, String householdId, LocalDateTime since, LocalDateTime until,
+                              LocalDateTime lastAt, String lastId, int limit) {
+        String time = section.timeField();
+        Criteria criteria = Criteria.where("householdId").is(householdId).and(time).lte(until);
+        if (lastId != null) {
+            criteria = criteria.orOperator(
+                    Criteria.where(time).gt(lastAt),
+                    Criteria.where(time).is(lastAt).and("_id").gt(new ObjectId(lastId)));
+        } else if (since != null) {
+            criteria = Criteria.where("householdId").is(householdId).and(time).gt(since).lte(until);
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Order.asc(time), Sort.Order.asc("_id")))
+                .limit(limit);
+        return mongoTemplate.find(query, section.type());
+    }
+    
+    public static boolean isSynced(Class<?> type) {
+        return SECTIONS.stream().anyMatch(section -> section.type() == type);
+    }
+    
+    private static String sectionName(Class<?> type) {
+        return SECTIONS.stream()
+                .filter(section -> section.type() == type)
+                .map(Section::name)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Not synced: " + type.getSimpleName()));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> LocalDateTime timeOf(Section<T> section, Object item) {
+        return section.time().apply((T) item);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> String idOf(Section<T> section, Object item) {
+        return section.id().apply((T) item);
+    }
+    
+    private static SyncResponse response(
+            Map<String, List<?>> changes, List<SyncTombstone> deleted, String nextToken, boolean hasMore) {
+        return SyncResponse.builder()
+                .changes(changes)
+                .deleted(deleted)
+                .nextToken(nextToken)
+                .hasMore(hasMore)
+                .build();
+    }
+    
+    private static String encode(SyncToken token) {
+        String value = String.join("|", TOKEN_PREFIX, format(token.since()), format(token.until()),
+                String.valueOf(token.section()), format(token.lastAt()), token.lastId() == null ? "" : token.lastId());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static SyncToken decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length == 6 && parts[0].equals(TOKEN_PREFIX)) {
+                int section = Integer.parseInt(parts[3]);
+                String lastId = parts[5].isEmpty() ? null : parts[5];
+                if (section >= 0 && section < SECTIONS.size() && (lastId == null || ObjectId.isValid(lastId))) {
+                    return new SyncToken(parse(parts[1]), parse(parts[2]), section, parse(parts[4]), lastId);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Fall through to the bad request below
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sync token");
+    }
+    
+    private static String format(LocalDateTime time) {
+        return time == null ? "" : time.toString();
+    }
+    
+    private static LocalDateTime parse(String value) {
+        return value.isEmpty() ? null : LocalDateTime.parse(value);
+    }
+}
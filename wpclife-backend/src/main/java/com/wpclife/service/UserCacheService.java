@@ -0,0 +1,89 @@
+package com.wpclife.service;
+
+import com.wpclife.cache.BoundedTtlCache;
+import com.wpclife.model.User;
+import com.wpclife.repository.UserRepository;
+import com.wpclife.security.TokenRevocationRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Read-through cache in front of {@link UserRepository}. All user writes should go through
+ * {@link #save(User)} so cached copies and issued tokens stay consistent.
+ */
+@Service
+public class UserCacheService {
+    
+    private final UserRepository userRepository;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final BoundedTtlCache<String, User> usersById;
+    private final BoundedTtlCache<String, String> idsByEmail;
+    
+    public UserCacheService(
+            UserRepository userRepository,
+            TokenRevocationRegistry revocationRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${cache.users.max-size:10000}") int maxSize,
+            @Value("${cache.users.ttl-seconds:600}") long ttlSeconds
+    ) {
+        this.userRepository = userRepository;
+        this.revocationRegistry = revocationRegistry;
+        this.usersById = new BoundedTtlCache<>(maxSize, ttlSeconds * 1000);
+        this.idsByEmail = new BoundedTtlCache<>(maxSize, ttlSeconds * 1000);
+        usersById.bindTo(meterRegistry, "users.by-id");
+        idsByEmail.bindTo(meterRegistry, "users.by-email");
+    }
+    
+    public Optional<User> findById(String id) {
+        return Optional.ofNullable(usersById.get(id, key -> userRepository.findById(key).orElse(null)))
+                .map(UserCacheService::copy);
+    }
+    
+    public Optional<User> findByEmail(String email) {
+        String id = idsByEmail.get(email);
+        if (id != null) {
+            User cached = usersById.get(id);
+            if (cached != null) {
+                return Optional.of(copy(cached));
+            }
+        }
+        Optional<User> user = userRepository.findByEmail(email);
+        user.ifPresent(this::cache);
+        return user.map(UserCacheService::copy);
+    }
+    
+    public User save(User user) {
+        if (user.getId() != null) {
+            findById(user.getId()).ifPresent(previous -> {
+                if (previous.getRole() != user.getRole()
+                        || !Objects.equals(previous.getHouseholdId(), user.getHouseholdId())) {
+                    revocationRegistry.revokeIssuedTokens(user.getId());
+                }
+            });
+        }
+        User saved = userRepository.save(user);
+        evict(saved);
+        cache(saved);
+        return copy(saved);
+    }
+    
+    public void evict(User user) {
+        usersById.invalidate(user.getId());
+        idsByEmail.invalidate(user.getEmail());
+    }
+    
+    private void cache(User user) {
+        User snapshot = copy(user);
+        usersById.put(snapshot.getId(), snapshot);
+        idsByEmail.put(snapshot.getEmail(), snapshot.getId());
+    }
+    
+    // Callers mutate the returned entities (e.g. blanking the password), so never hand out the cached instance
+    private static User copy(User user) {
+        return user.toBuilder().build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.wpclife.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Single-document updates that run entirely on the server and return the updated document.
+ * Every update bumps a {@code version} field; callers that pass the version they last saw get a
+ * 412 instead of silently overwriting someone else's change. Documents written before versioning
+ * have no field and count as version 0.
+ */
+@Component
+@RequiredArgsConstructor
+public class VersionedUpdates {
+    
+    private final MongoTemplate mongoTemplate;
+    
+    /**
+     * Updates the document with the given id, provided it belongs to {@code householdId} and also
+     * matches {@code guard} (may be null). Returns the updated document, or null when it exists but
+     * the guard did not match; a document from another household is reported as not found.
+     */
+    public <T> T update(
+            Class<T> type, String id, String householdId, Criteria guard, Update update, Long expectedVersion, String notFound) {
+        return apply(type, id, householdId, guard, update.inc("version", 1), expectedVersion, notFound);
+    }
+    
+    public <T> T update(Class<T> type, String id, String householdId, Criteria guard, AggregationUpdate update,
+                        Long expectedVersion, String notFound) {
+        update.set("version").toValue(ArithmeticOperators.Add.valueOf(ConditionalOperators.ifNull("version").then(0)).add(1));
+        return apply(type, id, householdId, guard, update, expectedVersion, notFound);
+    }
+    
+    /**
+     * Parses an If-Match header holding a version, quoted as an ETag or not.
+     */
+    public static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        try {
+            return Long.parseLong(value.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "If-Match must be a version number");
+        }
+    }
+    
+    private <T> T apply(Class<T> type, String id, String householdId, Criteria guard, UpdateDefinition update,
+                        Long expectedVersion, String notFound) {
+        Query query = Query.query(owned(id, householdId));
+        if (guard != null) {
+            query.addCriteria(guard);
+        }
+        if (expectedVersion != null) {
+            query.addCriteria(expectedVersion == 0
+                    ? new Criteria().orOperator(Criteria.where("version").is(0), Criteria.where("version").exists(false))
+                    : Criteria.where("version").is(expectedVersion));
+        }
+        T updated = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), type);
+        if (updated != null) {
+            return updated;
+        }
+        if (!mongoTemplate.exists(Query.query(owned(id, householdId)), type)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, notFound);
+        }
+        if (expectedVersion != null) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Modified by someone else; reload and retry");
+        }
+        return null;
+    }
+    
+    private static Criteria owned(String id, String householdId) {
+        return Criteria.where("_id").is(id).and("householdId").is(householdId);
+    }
+}
@@ -0,0 +1,44 @@
+package com.wpclife.config;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Builds the managed indexes on a real MongoDB and explains every repository query against them,
+ * so a query that would scan its whole collection fails the build. Skipped where Docker is missing.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MongoIndexInitializerTest {
+
+    @Container
+    private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient client;
+    private static MongoIndexInitializer initializer;
+
+    @BeforeAll
+    static void createIndexes() {
+        client = MongoClients.create(MONGO.getReplicaSetUrl());
+        initializer = new MongoIndexInitializer(new MongoTemplate(client, "wpclife"), true, true, 60);
+        initializer.ensureIndexes();
+    }
+
+    @AfterAll
+    static void closeClient() {
+        client.close();
+    }
+
+    @Test
+    void everyRepositoryQueryUsesAnIndex() {
+        assertThat(initializer.verifyQueryPlans()).isEmpty();
+    }
+}
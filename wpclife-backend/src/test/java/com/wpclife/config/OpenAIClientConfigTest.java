@@ -0,0 +1,87 @@
+package com.wpclife.config;
+
+import com.wpclife.support.StubOpenAIServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringJUnitConfig(classes = {OpenAIClientConfig.class, OpenAIClientConfigTest.Builders.class})
+@TestPropertySource(properties = {
+        "OPENAI_API_KEY=test-key",
+        "ai.openai.response-timeout-seconds=1"
+})
+class OpenAIClientConfigTest {
+
+    private static final StubOpenAIServer SERVER = StubOpenAIServer.start();
+
+    @Configuration
+    static class Builders {
+        @Bean
+        WebClient.Builder webClientBuilder() {
+            return WebClient.builder();
+        }
+    }
+
+    @DynamicPropertySource
+    static void openAIUrl(DynamicPropertyRegistry registry) {
+        registry.add("OPENAI_API_URL", SERVER::baseUrl);
+    }
+
+    @Autowired
+    private WebClient openAIWebClient;
+
+    @BeforeEach
+    void resetServer() {
+        SERVER.reset();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.close();
+    }
+
+    @Test
+    void reusesPooledConnections() {
+        SERVER.respondWith("[{\"type\":\"grocery\",\"title\":\"Milk\"}]");
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(complete()).contains("Milk");
+        }
+
+        // A response can complete just before its connection returns to the pool, so the next
+        // call may open a second one; after that both stay idle and are reused
+        assertThat(SERVER.requests()).isEqualTo(20);
+        assertThat(SERVER.connections()).isBetween(1, 2);
+    }
+
+    @Test
+    void failsWhenResponseIsLate() {
+        SERVER.delay(Duration.ofSeconds(3));
+
+        assertThatThrownBy(this::complete).isInstanceOf(WebClientRequestException.class);
+    }
+
+    private String complete() {
+        return openAIWebClient.post()
+                .uri("/chat/completions")
+                .bodyValue(Map.of("model", "gpt-4o-mini", "stream", false))
+                .retrieve()
+                .bodyToMono(String.class)
+                .block(Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,127 @@
+package com.wpclife.controller;
+
+import com.wpclife.config.SecurityConfig;
+import com.wpclife.dto.ScheduleResponse;
+import com.wpclife.model.User;
+import com.wpclife.security.AuthenticatedUser;
+import com.wpclife.security.JwtService;
+import com.wpclife.security.TokenRevocationRegistry;
+import com.wpclife.service.AIScheduleService;
+import com.wpclife.service.OpenAIGuard;
+import com.wpclife.service.ScheduleJobService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs requests through the real security filter chain and JWT filter, including the async
+ * dispatch on which reactive and SSE results are written.
+ */
+@WebMvcTest(AIScheduleController.class)
+@Import({SecurityConfig.class, JwtService.class})
+class AIScheduleControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @MockitoBean
+    private AIScheduleService aiScheduleService;
+
+    @MockitoBean
+    private ScheduleJobService scheduleJobService;
+
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+
+    @MockitoBean
+    private TokenRevocationRegistry revocationRegistry;
+
+    @Test
+    void scheduleResultIsWrittenOnAsyncDispatch() throws Exception {
+        when(aiScheduleService.processScheduleText(eq("buy milk"), any()))
+                .thenReturn(Mono.delay(Duration.ofMillis(20)).map(tick -> ScheduleResponse.builder()
+                        .message("Created 1 item")
+                        .items(List.of())
+                        .build()));
+
+        MvcResult started = mockMvc.perform(post("/api/ai/schedule")
+                        .header(HttpHeaders.AUTHORIZATION, bearer(User.Role.GUARDIAN))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\":\"buy milk\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Created 1 item"));
+    }
+
+    @Test
+    void scheduleAnswers503WhenTheGuardRejects() throws Exception {
+        when(aiScheduleService.processScheduleText(eq("buy milk"), any()))
+                .thenReturn(Mono.error(new OpenAIGuard.UnavailableException("Too many concurrent OpenAI calls")));
+
+        MvcResult started = mockMvc.perform(post("/api/ai/schedule")
+                        .header(HttpHeaders.AUTHORIZATION, bearer(User.Role.GUARDIAN))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\":\"buy milk\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.message").value(AIScheduleService.BUSY_MESSAGE));
+    }
+
+    @Test
+    void scheduleRequiresGuardian() throws Exception {
+        mockMvc.perform(post("/api/ai/schedule")
+                        .header(HttpHeaders.AUTHORIZATION, bearer(User.Role.MEMBER))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\":\"buy milk\"}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void scheduleRequiresToken() throws Exception {
+        mockMvc.perform(post("/api/ai/schedule")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\":\"buy milk\"}"))
+                .andExpect(status().isForbidden());
+    }
+
+    private String bearer(User.Role role) {
+        User user = User.builder()
+                .id("64b000000000000000000001")
+                .email("guardian@example.com")
+                .householdId("64b000000000000000000002")
+                .role(role)
+                .build();
+        return "Bearer " + jwtService.generateToken(AuthenticatedUser.from(user));
+    }
+}
@@ -0,0 +1,32 @@
+package com.wpclife.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+    @Test
+    void decodesBase64Secret() {
+        byte[] key = new byte[48];
+        key[0] = 7;
+
+        assertThat(JwtService.signingKeyBytes(Base64.getEncoder().encodeToString(key))).isEqualTo(key);
+    }
+
+    @Test
+    void acceptsDevelopmentDefaultAsPlainText() {
+        assertThat(JwtService.signingKeyBytes("your-256-bit-secret-key-here-change-in-production"))
+                .hasSize(49);
+    }
+
+    @Test
+    void rejectsShortSecretWithClearMessage() {
+        assertThatThrownBy(() -> JwtService.signingKeyBytes("too-short"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("JWT_SECRET");
+    }
+}
@@ -0,0 +1,136 @@
+package com.wpclife.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.wpclife.dto.ChoreStats;
+import com.wpclife.model.Chore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Weekly and monthly chore stats against a household whose history grows from a thousand to a few
+ * hundred thousand chores while the current week stays the same size. The windowed aggregations
+ * should cost about the same at every size; loading the completed history and grouping it in Java,
+ * as the leaderboard used to, is there for contrast. Needs Docker; run {@link #main} after
+ * {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChoreStatsBenchmark {
+
+    private static final String HOUSEHOLD = "benchmark-household";
+    private static final int RECENT_CHORES = 50;
+    private static final int MEMBERS = 5;
+
+    @Param({"1000", "100000", "300000"})
+    int historySize;
+
+    private MongoDBContainer mongo;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private ChoreService choreService;
+
+    @Setup(Level.Trial)
+    public void createHistory() {
+        mongo = new MongoDBContainer("mongo:7.0");
+        mongo.start();
+        client = MongoClients.create(mongo.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(client, "wpclife");
+        // The chore indexes MongoIndexInitializer manages that the stats queries use
+        IndexOperations chores = mongoTemplate.indexOps(Chore.class);
+        chores.ensureIndex(new Index().on("householdId", Sort.Direction.ASC).on("completed", Sort.Direction.ASC));
+        chores.ensureIndex(new Index().on("householdId", Sort.Direction.ASC).on("completedAt", Sort.Direction.ASC));
+        chores.ensureIndex(new Index().on("householdId", Sort.Direction.ASC).on("dueDate", Sort.Direction.ASC));
+
+        // A cache size of 0 stores nothing, so every call runs the aggregations
+        choreService = new ChoreService(mongoTemplate, null, null, null, null, new SimpleMeterRegistry(), 0, 300);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Chore> batch = new ArrayList<>();
+        for (int i = 0; i < historySize + RECENT_CHORES; i++) {
+            // Older history reaches back almost three years; the newest chores fall in the last two days
+            LocalDateTime due = i < historySize
+                    ? now.minusDays(40).minusMinutes((long) i * 5)
+                    : now.minusHours(i - historySize + 1);
+            batch.add(Chore.builder()
+                    .title("Chore " + i)
+                    .assignedToId("member-" + (i % MEMBERS))
+                    .householdId(HOUSEHOLD)
+                    .points(5 + i % 16)
+                    .dueDate(due)
+                    .completed(i % 3 != 0)
+                    .completedAt(i % 3 != 0 ? due : null)
+                    .createdAt(due)
+                    .updatedAt(due)
+                    .version(0L)
+                    .build());
+            if (batch.size() == 10_000) {
+                mongoTemplate.insertAll(batch);
+                batch.clear();
+            }
+        }
+        mongoTemplate.insertAll(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopMongo() {
+        client.close();
+        mongo.stop();
+    }
+
+    @Benchmark
+    public ChoreStats weekStats() {
+        return choreService.stats(HOUSEHOLD, ChoreStats.Window.WEEK);
+    }
+
+    @Benchmark
+    public ChoreStats monthStats() {
+        return choreService.stats(HOUSEHOLD, ChoreStats.Window.MONTH);
+    }
+
+    @Benchmark
+    public Map<String, Integer> loadAndGroupHistory() {
+        Query completed = Query.query(Criteria.where("householdId").is(HOUSEHOLD).and("completed").is(true));
+        return mongoTemplate.find(completed, Chore.class).stream()
+                .collect(Collectors.groupingBy(Chore::getAssignedToId, Collectors.summingInt(Chore::getPoints)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ChoreStatsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
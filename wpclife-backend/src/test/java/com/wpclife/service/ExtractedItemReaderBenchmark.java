@@ -0,0 +1,101 @@
+package com.wpclife.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.wpclife.dto.ExtractedItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a large model response into items by binding straight from the token stream
+ * (what {@link ExtractedItemReader} does) against the previous approaches: a tree per element, and
+ * the original {@code List<Map<String, Object>>}. Run {@link #main} after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtractedItemReaderBenchmark {
+
+    @Param({"50", "1000"})
+    int itemCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectReader itemReader = objectMapper.readerFor(ExtractedItem.class);
+    private final ExtractedItemReader reader = new ExtractedItemReader(objectMapper);
+    private String content;
+
+    @Setup
+    public void createPayload() {
+        StringBuilder json = new StringBuilder("```json\n[");
+        for (int i = 0; i < itemCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(switch (i % 4) {
+                case 0 -> "{\"type\":\"chore\",\"title\":\"Chore " + i + "\",\"dateTime\":\"2026-10-16T09:00:00\",\"points\":10}";
+                case 1 -> "{\"type\":\"event\",\"title\":\"Event " + i + "\",\"description\":\"Soccer practice at the park\","
+                        + "\"dateTime\":\"2026-10-17T16:00:00\",\"endDateTime\":\"2026-10-17T17:30:00\"}";
+                case 2 -> "{\"type\":\"medication\",\"title\":\"Medication " + i + "\",\"dosage\":\"5ml\","
+                        + "\"times\":[\"morning\",\"evening\"]}";
+                default -> "{\"type\":\"grocery\",\"title\":\"Item " + i + "\",\"category\":\"PRODUCE\"}";
+            });
+        }
+        content = json.append("]\n```").toString();
+    }
+
+    @Benchmark
+    public List<ExtractedItem> streamBinding() {
+        return reader.readAll(content);
+    }
+
+    @Benchmark
+    public List<ExtractedItem> treePerElement() throws IOException {
+        List<ExtractedItem> items = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(content.substring(content.indexOf('[')))) {
+            parser.nextToken();
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                JsonNode element = parser.readValueAsTree();
+                items.add(itemReader.readValue(element));
+            }
+        }
+        return items;
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> listOfMaps() throws IOException {
+        String array = content.substring(content.indexOf('['), content.lastIndexOf(']') + 1);
+        return objectMapper.readValue(array, objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, Map.class));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ExtractedItemReaderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
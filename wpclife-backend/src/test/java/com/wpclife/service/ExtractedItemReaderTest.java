@@ -0,0 +1,45 @@
+package com.wpclife.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wpclife.dto.ExtractedItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExtractedItemReaderTest {
+
+    private final ExtractedItemReader reader = new ExtractedItemReader(new ObjectMapper());
+
+    @Test
+    void readsArrayInsideFencesAndProse() {
+        List<ExtractedItem> items = reader.readAll("""
+                Here you go:
+                ```json
+                [{"type":"grocery","title":"Milk","category":"DAIRY","extra":{"a":[1,2]}},
+                 {"type":"chore","title":"Dishes","points":5}]
+                ```
+                """);
+
+        assertThat(items).extracting(ExtractedItem::title).containsExactly("Milk", "Dishes");
+    }
+
+    @Test
+    void skipsMalformedElementAndKeepsTheRest() {
+        List<ExtractedItem> items = reader.readAll("""
+                [{"type":"chore","title":"Bad","points":"lots","times":{"nested":[{"x":1}]}},
+                 "stray",
+                 {"type":"chore","title":"Good","points":10}]
+                """);
+
+        assertThat(items).extracting(ExtractedItem::title).containsExactly("Good");
+    }
+
+    @Test
+    void keepsItemsReadBeforeTheArrayWasCutOff() {
+        List<ExtractedItem> items = reader.readAll("[{\"type\":\"grocery\",\"title\":\"Eggs\"},{\"type\":\"gro");
+
+        assertThat(items).extracting(ExtractedItem::title).containsExactly("Eggs");
+    }
+}
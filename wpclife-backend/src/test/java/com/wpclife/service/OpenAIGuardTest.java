@@ -0,0 +1,145 @@
+package com.wpclife.service;
+
+import com.wpclife.support.StubOpenAIServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Drives the guard against the stub chat-completions server, which is made slow or failing per test.
+ */
+class OpenAIGuardTest {
+
+    private static final StubOpenAIServer SERVER = StubOpenAIServer.start();
+
+    private final WebClient client = WebClient.create(SERVER.baseUrl());
+
+    @BeforeEach
+    void resetServer() {
+        SERVER.reset();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.close();
+    }
+
+    @Test
+    void opensAfterFailuresAndThenFailsFast() {
+        OpenAIGuard guard = guard(20, 30, 60);
+        SERVER.failWith(500);
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> call(guard)).isNotInstanceOf(OpenAIGuard.UnavailableException.class);
+        }
+        assertThat(guard.state()).isEqualTo(OpenAIGuard.State.OPEN);
+
+        SERVER.respondWith("[]");
+        assertThatThrownBy(() -> call(guard)).isInstanceOf(OpenAIGuard.UnavailableException.class);
+        assertThat(SERVER.requests()).isEqualTo(4);
+    }
+
+    @Test
+    void halfOpenProbeClosesTheBreaker() {
+        OpenAIGuard guard = guard(20, 30, 0);
+        SERVER.failWith(500);
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> call(guard));
+        }
+
+        SERVER.respondWith("[]");
+        assertThat(call(guard)).contains("choices");
+        assertThat(guard.state()).isEqualTo(OpenAIGuard.State.CLOSED);
+    }
+
+    @Test
+    void failedHalfOpenProbeReopensTheBreaker() {
+        OpenAIGuard guard = guard(20, 30, 0);
+        SERVER.failWith(500);
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> call(guard));
+        }
+
+        assertThatThrownBy(() -> call(guard)).isNotInstanceOf(OpenAIGuard.UnavailableException.class);
+        assertThat(guard.state()).isEqualTo(OpenAIGuard.State.OPEN);
+    }
+
+    @Test
+    void halfOpenAllowsOnlyOneProbeAtATime() {
+        OpenAIGuard guard = guard(20, 30, 0);
+        SERVER.failWith(500);
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> call(guard));
+        }
+
+        AtomicInteger subscribed = new AtomicInteger();
+        Disposable probe = guard.protect(Mono.never().doOnSubscribe(s -> subscribed.incrementAndGet())).subscribe();
+        try {
+            assertThat(guard.state()).isEqualTo(OpenAIGuard.State.HALF_OPEN);
+            assertThatThrownBy(() -> guard.protect(Mono.just("second")).block())
+                    .isInstanceOf(OpenAIGuard.UnavailableException.class);
+            assertThat(subscribed).hasValue(1);
+        } finally {
+            probe.dispose();
+        }
+    }
+
+    @Test
+    void rejectsCallsBeyondTheBulkhead() {
+        OpenAIGuard guard = guard(1, 30, 60);
+        SERVER.delay(Duration.ofSeconds(2));
+
+        Disposable inFlight = guard.protect(complete()).subscribe();
+        try {
+            assertThatThrownBy(() -> call(guard))
+                    .isInstanceOf(OpenAIGuard.UnavailableException.class)
+                    .hasMessageContaining("concurrent");
+        } finally {
+            inFlight.dispose();
+        }
+        // The rejected call never reached the endpoint and the permit is back once the first is gone
+        assertThat(guard.state()).isEqualTo(OpenAIGuard.State.CLOSED);
+        SERVER.respondWith("[]");
+        assertThat(call(guard)).contains("choices");
+    }
+
+    @Test
+    void failsCallsThatOutliveTheDeadline() {
+        OpenAIGuard guard = guard(20, 1, 60);
+        SERVER.delay(Duration.ofSeconds(3));
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> call(guard)).hasCauseInstanceOf(TimeoutException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(3));
+    }
+
+    private static OpenAIGuard guard(int maxConcurrent, long deadlineSeconds, long openSeconds) {
+        // Window of 4 calls, opening at 50% failures, with one half-open probe
+        return new OpenAIGuard(new SimpleMeterRegistry(), maxConcurrent, deadlineSeconds, 90,
+                4, 4, 50, 10, 80, openSeconds, 1);
+    }
+
+    private String call(OpenAIGuard guard) {
+        return guard.protect(complete()).block(Duration.ofSeconds(10));
+    }
+
+    private Mono<String> complete() {
+        return client.post()
+                .uri("/chat/completions")
+                .bodyValue(Map.of("model", "gpt-4o-mini", "stream", false))
+                .retrieve()
+                .bodyToMono(String.class);
+    }
+}
@@ -0,0 +1,55 @@
+package com.wpclife.service;
+
+import com.wpclife.dto.ExtractedItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for {@link ScheduleFastPathParser} to answer each kind of text it handles, and to give up on
+ * one it doesn't, which every request that goes on to the model pays. Run {@link #main} after
+ * {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleFastPathParserBenchmark {
+
+    @Param({
+            "Buy milk, eggs, bread, bananas and chicken",
+            "take 10mg vitamin D every morning and evening",
+            "Dentist next friday at 3:30pm",
+            "Soccer practice for the kids every Tuesday and Thursday after school, and remind me to pack snacks"
+    })
+    String text;
+
+    private final ScheduleFastPathParser parser = new ScheduleFastPathParser(new SimpleMeterRegistry());
+
+    @Benchmark
+    public List<ExtractedItem> parse() {
+        return parser.parse(text);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ScheduleFastPathParserBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,93 @@
+package com.wpclife.service;
+
+import com.wpclife.dto.ExtractedItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScheduleFastPathParserTest {
+
+    private final ScheduleFastPathParser parser = new ScheduleFastPathParser(new SimpleMeterRegistry());
+
+    @Test
+    void readsPrefixedGroceryList() {
+        assertThat(parser.parse("Buy milk, bread and tickets")).containsExactly(
+                ExtractedItem.grocery("Milk", "DAIRY"),
+                ExtractedItem.grocery("Bread", "PANTRY"),
+                ExtractedItem.grocery("Tickets", "OTHER"));
+    }
+
+    @Test
+    void trustsLabelledListWithoutKnownItems() {
+        assertThat(parser.parse("groceries: stamps, envelopes")).containsExactly(
+                ExtractedItem.grocery("Stamps", "OTHER"),
+                ExtractedItem.grocery("Envelopes", "OTHER"));
+    }
+
+    @Test
+    void readsUnprefixedListOfKnownGroceries() {
+        assertThat(parser.parse("milk and eggs")).containsExactly(
+                ExtractedItem.grocery("Milk", "DAIRY"),
+                ExtractedItem.grocery("Eggs", "DAIRY"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // "buy" with nothing recognisable could be anything
+            "buy tickets",
+            // Without a prefix every item has to be a known grocery
+            "milk and stamps",
+            "call mom and pay rent",
+            "soccer, piano",
+            // A single unprefixed word is as likely a note as a list
+            "milk",
+            // Walking the dog is not a medication
+            "take the dog out every morning",
+            // No title, just a date
+            "next monday at 3pm",
+            // Not a time
+            "dentist tomorrow at 13pm",
+            "dentist tomorrow at 25:00",
+            // Several things in one sentence
+            "dentist and haircut tomorrow at 3pm",
+            "dentist tomorrow at 3pm\nsoccer friday at 5pm"
+    })
+    void leavesUncertainTextToTheModel(String text) {
+        assertThat(parser.parse(text)).isNull();
+    }
+
+    @Test
+    void readsMedicationWithDosageAndTimes() {
+        assertThat(parser.parse("take 5mg melatonin every night")).containsExactly(
+                ExtractedItem.medication("Melatonin", "5mg", List.of("evening")));
+        assertThat(parser.parse("Remind me to take my vitamins every morning and evening")).containsExactly(
+                ExtractedItem.medication("Vitamins", null, List.of("morning", "evening")));
+    }
+
+    @Test
+    void readsEventWithRelativeDay() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        assertThat(parser.parse("Dentist tomorrow at 3pm")).containsExactly(
+                ExtractedItem.event("Dentist", tomorrow.atTime(15, 0) + ":00"));
+
+        LocalDate nextMonday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        assertThat(parser.parse("piano lesson at 4:30pm next monday")).containsExactly(
+                ExtractedItem.event("Piano lesson", nextMonday.atTime(LocalTime.of(16, 30)) + ":00"));
+    }
+
+    @Test
+    void acceptsTwentyFourHourClock() {
+        assertThat(parser.parse("dentist tomorrow at 13:00"))
+                .extracting(ExtractedItem::dateTime)
+                .containsExactly(LocalDate.now().plusDays(1).atTime(13, 0) + ":00");
+    }
+}
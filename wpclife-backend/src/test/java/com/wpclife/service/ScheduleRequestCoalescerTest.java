@@ -0,0 +1,126 @@
+package com.wpclife.service;
+
+import com.wpclife.dto.ScheduleResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScheduleRequestCoalescerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final ScheduleRequestCoalescer coalescer = new ScheduleRequestCoalescer(new SimpleMeterRegistry(), 30, 100);
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @Test
+    void concurrentIdenticalRequestsShareOneRun() {
+        Sinks.One<ScheduleResponse> upstream = Sinks.one();
+        Mono<ScheduleResponse> first = coalescer.coalesce("user", "Milk and eggs", counted(upstream::asMono)).cache();
+        Mono<ScheduleResponse> second = coalescer.coalesce("user", "  milk AND eggs ", counted(upstream::asMono)).cache();
+        first.subscribe();
+        second.subscribe();
+
+        upstream.tryEmitValue(response("Milk"));
+
+        assertThat(first.block(TIMEOUT)).isSameAs(second.block(TIMEOUT));
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void blockingRequestJoinsInFlightStream() {
+        Sinks.Many<ServerSentEvent<Object>> upstream = Sinks.many().replay().all();
+        Flux<ServerSentEvent<Object>> stream = coalescer.coalesceStream("user", "milk and eggs",
+                counted(upstream::asFlux), this::replay).cache();
+        stream.subscribe();
+        Mono<ScheduleResponse> blocking = coalescer.coalesce("user", "milk and eggs",
+                counted(() -> Mono.just(response("Duplicate")))).cache();
+        blocking.subscribe();
+
+        ScheduleResponse done = response("Milk");
+        upstream.tryEmitNext(ServerSentEvent.<Object>builder(done.getItems().get(0)).event("item").build());
+        upstream.tryEmitNext(ServerSentEvent.<Object>builder(done).event("done").build());
+        upstream.tryEmitComplete();
+
+        assertThat(blocking.block(TIMEOUT)).isSameAs(done);
+        assertThat(stream.collectList().block(TIMEOUT)).extracting(ServerSentEvent::event).containsExactly("item", "done");
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void streamJoinsInFlightBlockingRequestAndGetsItReplayed() {
+        Sinks.One<ScheduleResponse> upstream = Sinks.one();
+        Mono<ScheduleResponse> blocking = coalescer.coalesce("user", "milk and eggs", counted(upstream::asMono)).cache();
+        blocking.subscribe();
+        Flux<ServerSentEvent<Object>> stream = coalescer.coalesceStream("user", "milk and eggs",
+                counted(Flux::empty), this::replay).cache();
+        stream.subscribe();
+
+        upstream.tryEmitValue(response("Milk"));
+
+        assertThat(stream.collectList().block(TIMEOUT)).extracting(ServerSentEvent::event).containsExactly("item", "done");
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void replaysRecentResponseInsteadOfRunningAgain() {
+        ScheduleResponse first = coalescer.coalesce("user", "milk", counted(() -> Mono.just(response("Milk")))).block(TIMEOUT);
+        ScheduleResponse again = coalescer.coalesce("user", "milk", counted(() -> Mono.just(response("Other")))).block(TIMEOUT);
+        List<String> streamed = coalescer.coalesceStream("user", "milk", counted(Flux::empty), this::replay)
+                .map(ServerSentEvent::event)
+                .collectList()
+                .block(TIMEOUT);
+
+        assertThat(again).isSameAs(first);
+        assertThat(streamed).containsExactly("item", "done");
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void runsAgainAfterResponseWithoutItems() {
+        ScheduleResponse failed = ScheduleResponse.builder().message("Try again").items(List.of()).build();
+        coalescer.coalesce("user", "milk", counted(() -> Mono.just(failed))).block(TIMEOUT);
+        ScheduleResponse retried = coalescer.coalesce("user", "milk", counted(() -> Mono.just(response("Milk")))).block(TIMEOUT);
+
+        assertThat(retried.getItems()).hasSize(1);
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void differentUsersDoNotShare() {
+        Sinks.One<ScheduleResponse> upstream = Sinks.one();
+        coalescer.coalesce("alice", "milk", counted(upstream::asMono)).subscribe();
+        coalescer.coalesce("bob", "milk", counted(upstream::asMono)).subscribe();
+
+        assertThat(runs).hasValue(2);
+    }
+
+    private <T> Supplier<T> counted(Supplier<T> request) {
+        return () -> {
+            runs.incrementAndGet();
+            return request.get();
+        };
+    }
+
+    private Flux<ServerSentEvent<Object>> replay(ScheduleResponse response) {
+        return Flux.fromIterable(response.getItems())
+                .map(item -> ServerSentEvent.<Object>builder(item).event("item").build())
+                .concatWith(Mono.just(ServerSentEvent.<Object>builder(response).event("done").build()));
+    }
+
+    private static ScheduleResponse response(String title) {
+        return ScheduleResponse.builder()
+                .message("Created 1 item")
+                .items(List.of(ScheduleResponse.ParsedItem.builder().type("grocery").title(title).build()))
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package com.wpclife.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local stand-in for the chat completions endpoint, so the OpenAI client can be tested offline.
+ * It answers with a fixed model output, either as one JSON body or, for {@code "stream": true}
+ * requests, as server-sent events, and can be told to add latency or fail with a status.
+ */
+public final class StubOpenAIServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    private volatile String content = "[]";
+    private volatile int status = 200;
+    private volatile Duration delay = Duration.ZERO;
+
+    private StubOpenAIServer(HttpServer server) {
+        this.server = server;
+    }
+
+    public static StubOpenAIServer start() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            StubOpenAIServer stub = new StubOpenAIServer(server);
+            server.createContext("/v1/chat/completions", stub::handle);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.start();
+            return stub;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start stub OpenAI server", e);
+        }
+    }
+
+    public String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/v1";
+    }
+
+    /**
+     * Sets the model output returned in {@code choices[0].message.content} and resets any
+     * injected latency or failure.
+     */
+    public StubOpenAIServer respondWith(String content) {
+        this.content = content;
+        this.status = 200;
+        this.delay = Duration.ZERO;
+        return this;
+    }
+
+    public StubOpenAIServer failWith(int status) {
+        this.status = status;
+        return this;
+    }
+
+    public StubOpenAIServer delay(Duration delay) {
+        this.delay = delay;
+        return this;
+    }
+
+    public int requests() {
+        return requests.get();
+    }
+
+    /**
+     * Number of distinct client connections the requests arrived on.
+     */
+    public int connections() {
+        return clientPorts.size();
+    }
+
+    public void reset() {
+        respondWith("[]");
+        requests.set(0);
+        clientPorts.clear();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (status != 200) {
+            send(exchange, status, "application/json", "{\"error\":{\"message\":\"stubbed failure\"}}");
+        } else if (MAPPER.readTree(request).path("stream").asBoolean()) {
+            send(exchange, 200, "text/event-stream", streamBody(content));
+        } else {
+            send(exchange, 200, "application/json", MAPPER.writeValueAsString(Map.of(
+                    "choices", List.of(Map.of("message", Map.of("role", "assistant", "content", content))))));
+        }
+    }
+
+    // Splits the output into small deltas so items straddle event boundaries, like the real endpoint
+    private static String streamBody(String content) throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < content.length(); i += 7) {
+            String delta = content.substring(i, Math.min(content.length(), i + 7));
+            body.append("data: ").append(MAPPER.writeValueAsString(Map.of(
+                    "choices", List.of(Map.of("delta", Map.of("content", delta)))))).append("\n\n");
+        }
+        return body.append("data: [DONE]\n\n").toString();
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -7,6 +7,8 @@ import { Medication, MedicationLog, CreateMedicationRequest, LogMedicationReques
 import { Chore, CreateChoreRequest } from '../../shared/models/chore.model';
 import { GroceryItem, CreateGroceryRequest } from '../../shared/models/grocery.model';
 import { User } from '../../shared/models/user.model';
+import { Dashboard } from '../../shared/models/dashboard.model';
+import { SyncResponse } from '../../shared/models/sync.model';
 
 @Injectable({
   providedIn: 'root'
@@ -29,6 +31,17 @@ export class ApiService {
     return this.http.get(`${this.API_URL}/users/household/invite-code`, { responseType: 'text' });
   }
 
+  // Dashboard
+  getDashboard(): Observable<Dashboard> {
+    return this.http.get<Dashboard>(`${this.API_URL}/dashboard`);
+  }
+
+  // Sync
+  sync(since?: string): Observable<SyncResponse> {
+    const url = since ? `${this.API_URL}/sync?since=${encodeURIComponent(since)}` : `${this.API_URL}/sync`;
+    return this.http.get<SyncResponse>(url);
+  }
+
   // Calendar Events
   getEvents(start?: string, end?: string): Observable<CalendarEvent[]> {
     let url = `${this.API_URL}/events`;
@@ -337,7 +337,7 @@ export class AiAssistantComponent {
         error: (err) => {
           this.messages.push({
             type: 'assistant',
-            text: 'Sorry, something went wrong. Please try again.'
+            text: err.error?.message ?? 'Sorry, something went wrong. Please try again.'
           });
           this.loading = false;
         }
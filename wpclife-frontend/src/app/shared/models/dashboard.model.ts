@@ -0,0 +1,16 @@
+import { CalendarEvent } from './calendar.model';
+import { Chore } from './chore.model';
+import { GroceryItem } from './grocery.model';
+import { Medication, MedicationLog } from './medication.model';
+import { User } from './user.model';
+
+export interface Dashboard {
+  user: User | null;
+  members: User[] | null;
+  pendingChores: Chore[] | null;
+  pendingGroceries: GroceryItem[] | null;
+  medications: Medication[] | null;
+  todayMedicationLogs: MedicationLog[] | null;
+  upcomingEvents: CalendarEvent[] | null;
+  unavailable: string[];
+}
@@ -23,6 +23,8 @@ export interface MedicationLog {
   notes?: string;
   householdId: string;
   createdAt: string;
+  updatedAt?: string;
+  remainingInventory?: number;
 }
 
 export interface CreateMedicationRequest {
@@ -0,0 +1,25 @@
+import { CalendarEvent } from './calendar.model';
+import { Chore } from './chore.model';
+import { GroceryItem } from './grocery.model';
+import { Medication, MedicationLog } from './medication.model';
+
+export interface SyncTombstone {
+  id: string;
+  householdId: string;
+  type: 'chores' | 'events' | 'medications' | 'medicationLogs' | 'groceries';
+  entityId: string;
+  deletedAt: string;
+}
+
+export interface SyncResponse {
+  changes: {
+    chores?: Chore[];
+    events?: CalendarEvent[];
+    medications?: Medication[];
+    medicationLogs?: MedicationLog[];
+    groceries?: GroceryItem[];
+  };
+  deleted: SyncTombstone[];
+  nextToken: string;
+  hasMore: boolean;
+}